@@ -0,0 +1,117 @@
+package se.l4.exoconf.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.l4.exobytes.AnnotationSerialization;
+import se.l4.exobytes.Expose;
+import se.l4.exoconf.Config;
+
+/**
+ * Binding of objects and lists from a config, which reads values via the
+ * map and list inputs, together with reads via scoped configs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BindBenchmark
+{
+	@Param({ "10", "1000" })
+	private int services;
+
+	private Config config;
+	private Config scoped;
+
+	@Setup
+	public void setup()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("server: { host: localhost, port: 8080, timeout: 1.5, enabled: true }\n");
+		builder.append("cluster: {\n\tname: primary\n\tservices: [\n");
+		for(int i=0; i<services; i++)
+		{
+			builder.append("\t\t{ host: \"host").append(i)
+				.append("\", port: ").append(8000 + i)
+				.append(", timeout: ").append(i).append(".5")
+				.append(", enabled: ").append(i % 2 == 0)
+				.append(" }\n");
+		}
+		builder.append("\t]\n}\n");
+
+		config = Config.create()
+			.addStream(new ByteArrayInputStream(builder.toString().getBytes(StandardCharsets.UTF_8)))
+			.build();
+
+		scoped = config.scope("server");
+	}
+
+	@Benchmark
+	public Optional<Server> bindObject()
+	{
+		return config.get("server", Server.class);
+	}
+
+	@Benchmark
+	public Optional<Cluster> bindList()
+	{
+		return config.get("cluster", Cluster.class);
+	}
+
+	@Benchmark
+	public Optional<Server> bindListItem()
+	{
+		return config.get("cluster.services.0", Server.class);
+	}
+
+	@Benchmark
+	public int scopedInt()
+	{
+		return scoped.getInt("port", 0);
+	}
+
+	@Benchmark
+	public Optional<String> scopedString()
+	{
+		return scoped.get("host", String.class);
+	}
+
+	@AnnotationSerialization
+	public static class Server
+	{
+		@Expose
+		public String host;
+		@Expose
+		public int port;
+		@Expose
+		public double timeout;
+		@Expose
+		public boolean enabled;
+	}
+
+	@AnnotationSerialization
+	public static class Cluster
+	{
+		@Expose
+		public String name;
+		@Expose
+		public List<Server> services;
+	}
+}
@@ -0,0 +1,214 @@
+package se.l4.exoconf.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Generator for synthetic config files. Generated files are deterministic,
+ * so files of the same size can be used to compare releases.
+ *
+ * <p>
+ * Keys are placed in a tree with ten children per node, the leaf with
+ * number {@code n} has a path made up of the digits of {@code n}, such as
+ * {@code group1.group2.key3}. Leaves cycle through long, double, boolean and
+ * string values.
+ *
+ * <p>
+ * Files can be written from the command line:
+ * <pre>
+ * java -cp target/benchmarks.jar se.l4.exoconf.benchmarks.ConfigGenerator 100000 large.conf
+ * </pre>
+ */
+public class ConfigGenerator
+{
+	private static final int FANOUT = 10;
+
+	private ConfigGenerator()
+	{
+	}
+
+	public static void main(String[] args)
+		throws IOException
+	{
+		if(args.length != 2)
+		{
+			System.err.println("Usage: ConfigGenerator <keys> <file>");
+			System.exit(1);
+			return;
+		}
+
+		int keys = Integer.parseInt(args[0]);
+		Path file = Paths.get(args[1]);
+
+		Files.write(file, generate(keys).getBytes(StandardCharsets.UTF_8));
+		System.out.println("Wrote " + keys + " keys to " + file);
+	}
+
+	/**
+	 * Generate a config with the given number of keys nested in objects.
+	 *
+	 * @param keys
+	 * @return
+	 */
+	public static String generate(int keys)
+	{
+		StringBuilder builder = new StringBuilder();
+		write(builder, depth(keys), 0, 0, keys, "");
+		return builder.toString();
+	}
+
+	/**
+	 * Generate a config with the given number of keys, all at the top level.
+	 *
+	 * @param keys
+	 * @return
+	 */
+	public static String generateFlat(int keys)
+	{
+		StringBuilder builder = new StringBuilder();
+		for(int i=0; i<keys; i++)
+		{
+			builder.append("key").append(i).append(": ");
+			value(builder, i);
+			builder.append('\n');
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Generate a config with the given number of top-level sections, each
+	 * containing a nested tree with the given number of keys.
+	 *
+	 * @param sections
+	 * @param keysPerSection
+	 * @return
+	 */
+	public static String generateSections(int sections, int keysPerSection)
+	{
+		StringBuilder builder = new StringBuilder();
+		int depth = depth(keysPerSection);
+		for(int i=0; i<sections; i++)
+		{
+			builder.append("section").append(i).append(" {\n");
+			write(builder, depth, 0, 0, keysPerSection, "\t");
+			builder.append("}\n");
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Get the path of the given leaf in a config created via
+	 * {@link #generate(int)}.
+	 *
+	 * @param n
+	 * @param keys
+	 * @return
+	 */
+	public static String path(int n, int keys)
+	{
+		int depth = depth(keys);
+		StringBuilder builder = new StringBuilder();
+
+		int divisor = pow(depth - 1);
+		for(int level=0; level<depth; level++)
+		{
+			int digit = (n / divisor) % FANOUT;
+			if(level > 0)
+			{
+				builder.append('.');
+			}
+
+			builder.append(level == depth - 1 ? "key" : "group").append(digit);
+			divisor /= FANOUT;
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Get the path of the given leaf in a config created via
+	 * {@link #generateFlat(int)}.
+	 *
+	 * @param n
+	 * @return
+	 */
+	public static String flatPath(int n)
+	{
+		return "key" + n;
+	}
+
+	private static void write(StringBuilder builder, int depth, int level, int node, int keys, String indent)
+	{
+		int span = pow(depth - level - 1);
+		for(int c=0; c<FANOUT; c++)
+		{
+			int child = node * FANOUT + c;
+			int start = child * span;
+			if(start >= keys)
+			{
+				return;
+			}
+
+			builder.append(indent);
+			if(level == depth - 1)
+			{
+				builder.append("key").append(c).append(": ");
+				value(builder, child);
+				builder.append('\n');
+			}
+			else
+			{
+				builder.append("group").append(c).append(" {\n");
+				write(builder, depth, level + 1, child, keys, indent + "\t");
+				builder.append(indent).append("}\n");
+			}
+		}
+	}
+
+	private static void value(StringBuilder builder, int n)
+	{
+		switch(n % 4)
+		{
+			case 0:
+				builder.append(n);
+				break;
+			case 1:
+				builder.append(n).append(".25");
+				break;
+			case 2:
+				builder.append(n % 8 == 2);
+				break;
+			default:
+				builder.append("value ").append(n);
+		}
+	}
+
+	private static int depth(int keys)
+	{
+		int depth = 1;
+		int capacity = FANOUT;
+		while(capacity < keys)
+		{
+			capacity *= FANOUT;
+			depth++;
+		}
+
+		return depth;
+	}
+
+	private static int pow(int exponent)
+	{
+		int result = 1;
+		for(int i=0; i<exponent; i++)
+		{
+			result *= FANOUT;
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,98 @@
+package se.l4.exoconf.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.collections.api.factory.Maps;
+import org.eclipse.collections.api.map.MutableMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.l4.exoconf.sources.EnvironmentConfigSource;
+
+/**
+ * Lookups in {@link EnvironmentConfigSource} using the different name
+ * variants of a variable, using a synthetic environment instead of the
+ * real one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnvironmentLookupBenchmark
+{
+	private static final int PATHS = 1024;
+
+	@Param({ "100", "10000" })
+	private int variables;
+
+	private EnvironmentConfigSource source;
+
+	private String[] names;
+	private String[] paths;
+	private String[] missing;
+
+	private int counter;
+
+	@Setup
+	public void setup()
+	{
+		MutableMap<String, Object> env = Maps.mutable.empty();
+		for(int i=0; i<variables; i++)
+		{
+			env.put("SERVICE_" + i + "_HOST", "host" + i);
+		}
+
+		source = EnvironmentConfigSource.of(env);
+
+		names = new String[PATHS];
+		paths = new String[PATHS];
+		missing = new String[PATHS];
+		for(int i=0; i<PATHS; i++)
+		{
+			int n = (i * 7919) % variables;
+			names[i] = "SERVICE_" + n + "_HOST";
+			paths[i] = "service." + n + ".host";
+			missing[i] = "service." + n + ".port";
+		}
+	}
+
+	private int next()
+	{
+		return counter++ & (PATHS - 1);
+	}
+
+	@Benchmark
+	public Object variableName()
+	{
+		return source.getValue(names[next()]);
+	}
+
+	@Benchmark
+	public Object dottedPath()
+	{
+		return source.getValue(paths[next()]);
+	}
+
+	@Benchmark
+	public Object missingPath()
+	{
+		return source.getValue(missing[next()]);
+	}
+
+	@Benchmark
+	public Object keys()
+	{
+		return source.getKeys("service");
+	}
+}
@@ -0,0 +1,141 @@
+package se.l4.exoconf.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.factory.Maps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.l4.exoconf.Config;
+import se.l4.exoconf.sources.ConfigSource;
+import se.l4.exoconf.sources.FileConfigSource;
+import se.l4.exoconf.sources.FlattenedConfigSource;
+import se.l4.exoconf.sources.MapBasedConfigSource;
+import se.l4.exoconf.sources.MergingConfigSource;
+
+/**
+ * Lookups of single values in flat and nested configs, both directly in
+ * sources and via {@link Config}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LookupBenchmark
+{
+	private static final int PATHS = 1024;
+
+	@Param({ "100", "10000", "1000000" })
+	private int keys;
+
+	private String[] flatPaths;
+	private String[] nestedPaths;
+
+	private ConfigSource flatSource;
+	private ConfigSource nestedSource;
+	private MergingConfigSource mergingSource;
+	private FlattenedConfigSource flattenedSource;
+
+	private Config config;
+	private Config flattenedConfig;
+
+	private int counter;
+
+	@Setup
+	public void setup()
+		throws IOException
+	{
+		Random random = new Random(42);
+		flatPaths = new String[PATHS];
+		nestedPaths = new String[PATHS];
+		for(int i=0; i<PATHS; i++)
+		{
+			int n = random.nextInt(keys);
+			flatPaths[i] = ConfigGenerator.flatPath(n);
+			nestedPaths[i] = ConfigGenerator.path(n, keys);
+		}
+
+		flatSource = FileConfigSource.readString(ConfigGenerator.generateFlat(keys));
+		nestedSource = FileConfigSource.readString(ConfigGenerator.generate(keys));
+
+		// Sources are checked in order, so place a small override before the file
+		mergingSource = new MergingConfigSource(Lists.immutable.of(
+			new MapBasedConfigSource(Maps.mutable.<String, Object>of(nestedPaths[0], "override")),
+			nestedSource
+		));
+		flattenedSource = mergingSource.flatten();
+
+		String data = ConfigGenerator.generate(keys);
+		config = Config.create()
+			.addStream(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)))
+			.build();
+
+		flattenedConfig = Config.create()
+			.withFlattenedSources()
+			.addStream(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)))
+			.build();
+	}
+
+	private int next()
+	{
+		return counter++ & (PATHS - 1);
+	}
+
+	@Benchmark
+	public Object flatSource()
+	{
+		return flatSource.getValue(flatPaths[next()]);
+	}
+
+	@Benchmark
+	public Object nestedSource()
+	{
+		return nestedSource.getValue(nestedPaths[next()]);
+	}
+
+	@Benchmark
+	public Object mergingSource()
+	{
+		return mergingSource.getValue(nestedPaths[next()]);
+	}
+
+	@Benchmark
+	public Object flattenedSource()
+	{
+		return flattenedSource.getValue(nestedPaths[next()]);
+	}
+
+	@Benchmark
+	public Object configGetString()
+	{
+		return config.get(nestedPaths[next()], String.class);
+	}
+
+	@Benchmark
+	public Object flattenedConfigGetString()
+	{
+		return flattenedConfig.get(nestedPaths[next()], String.class);
+	}
+
+	@Benchmark
+	public Object configMissing()
+	{
+		return config.get(nestedPaths[next()] + ".missing", String.class);
+	}
+}
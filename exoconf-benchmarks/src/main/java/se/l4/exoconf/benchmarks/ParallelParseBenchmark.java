@@ -0,0 +1,77 @@
+package se.l4.exoconf.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.l4.exoconf.sources.FileConfigSource;
+
+/**
+ * Parsing of a large file with many top-level sections, sequentially and
+ * in parallel with pools of different sizes. Compare {@code parallel} for
+ * each thread count against {@code sequential} to see how parsing scales
+ * across cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelParseBenchmark
+{
+	@Param({ "1", "2", "4", "8" })
+	private int threads;
+
+	@Param({ "1000" })
+	private int sections;
+
+	@Param({ "1000" })
+	private int keysPerSection;
+
+	private ByteBuffer buffer;
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setup()
+	{
+		String data = ConfigGenerator.generateSections(sections, keysPerSection);
+		buffer = ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8));
+		pool = new ForkJoinPool(threads);
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public FileConfigSource sequential()
+		throws IOException
+	{
+		return FileConfigSource.read(buffer.duplicate());
+	}
+
+	@Benchmark
+	public FileConfigSource parallel()
+		throws IOException
+	{
+		return FileConfigSource.readParallel(buffer.duplicate(), pool);
+	}
+}
@@ -0,0 +1,59 @@
+package se.l4.exoconf.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.l4.exoconf.sources.FileConfigSource;
+
+/**
+ * Parsing of generated config files of different sizes, both via a reader
+ * and directly from UTF-8 bytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark
+{
+	@Param({ "100", "10000", "1000000" })
+	private int keys;
+
+	private String data;
+	private byte[] bytes;
+
+	@Setup
+	public void setup()
+	{
+		data = ConfigGenerator.generate(keys);
+		bytes = data.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public FileConfigSource parseReader()
+		throws IOException
+	{
+		return FileConfigSource.readString(data);
+	}
+
+	@Benchmark
+	public FileConfigSource parseBytes()
+		throws IOException
+	{
+		return FileConfigSource.read(bytes);
+	}
+}
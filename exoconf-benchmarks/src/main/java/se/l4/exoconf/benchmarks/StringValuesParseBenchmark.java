@@ -0,0 +1,66 @@
+package se.l4.exoconf.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.l4.exoconf.sources.FileConfigSource;
+
+/**
+ * Parsing of config files where most of the values are unquoted strings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StringValuesParseBenchmark
+{
+	@Param({ "1000", "40000" })
+	private int lines;
+
+	private String data;
+
+	@Setup
+	public void setup()
+	{
+		StringBuilder builder = new StringBuilder();
+		for(int i=0; i<lines; i++)
+		{
+			builder.append("service").append(i / 10).append('.')
+				.append("key").append(i % 10).append(": ");
+
+			if(i % 5 == 0)
+			{
+				builder.append(i);
+			}
+			else
+			{
+				builder.append("value-").append(i).append(" for host").append(i % 7);
+			}
+
+			builder.append('\n');
+		}
+
+		data = builder.toString();
+	}
+
+	@Benchmark
+	public FileConfigSource parseStringHeavy()
+		throws IOException
+	{
+		return FileConfigSource.readString(data);
+	}
+}
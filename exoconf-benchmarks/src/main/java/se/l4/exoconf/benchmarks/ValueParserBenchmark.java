@@ -0,0 +1,90 @@
+package se.l4.exoconf.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.l4.exoconf.internal.streaming.ValueParser;
+
+/**
+ * Compares classifying unquoted values via {@link ValueParser} with the
+ * previous approach of trying {@link Long#parseLong(String)} and
+ * {@link Double#parseDouble(String)} and catching the exceptions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValueParserBenchmark
+{
+	private static final String[] VALUES = {
+		"localhost",
+		"/var/lib/app/data",
+		"https://example.com/api",
+		"8080",
+		"INFO",
+		"0.75",
+		"true",
+		"user@example.com",
+		"-12",
+		"1e-3"
+	};
+
+	@Benchmark
+	public void scanner(Blackhole bh)
+	{
+		for(String value : VALUES)
+		{
+			bh.consume(ValueParser.parse(value));
+		}
+	}
+
+	@Benchmark
+	public void exceptions(Blackhole bh)
+	{
+		for(String value : VALUES)
+		{
+			bh.consume(parseWithExceptions(value));
+		}
+	}
+
+	private static Object parseWithExceptions(String in)
+	{
+		if(in.equals("false"))
+		{
+			return false;
+		}
+		else if(in.equals("true"))
+		{
+			return true;
+		}
+
+		try
+		{
+			return Long.parseLong(in);
+		}
+		catch(NumberFormatException e)
+		{
+			try
+			{
+				return Double.parseDouble(in);
+			}
+			catch(NumberFormatException e2)
+			{
+			}
+		}
+
+		return in;
+	}
+}
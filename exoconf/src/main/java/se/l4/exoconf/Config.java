@@ -3,7 +3,14 @@ package se.l4.exoconf;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 import javax.validation.ValidatorFactory;
 
@@ -92,6 +99,224 @@ public interface Config
 	@NonNull
 	<T> Optional<T> get(@NonNull Serializer<T> serializer);
 
+	/**
+	 * Get the value at the given path as an {@code int}. Reads the stored
+	 * value directly, without going through a {@link Serializer}.
+	 *
+	 * @param path
+	 * @return
+	 */
+	@NonNull
+	OptionalInt getInt(@NonNull String path);
+
+	/**
+	 * Get the value at the given path as an {@code int}, or the default
+	 * value if it is not available.
+	 *
+	 * @param path
+	 * @param defaultValue
+	 * @return
+	 */
+	int getInt(@NonNull String path, int defaultValue);
+
+	/**
+	 * Get the value at the given path as a {@code long}. Reads the stored
+	 * value directly, without going through a {@link Serializer}.
+	 *
+	 * @param path
+	 * @return
+	 */
+	@NonNull
+	OptionalLong getLong(@NonNull String path);
+
+	/**
+	 * Get the value at the given path as a {@code long}, or the default
+	 * value if it is not available.
+	 *
+	 * @param path
+	 * @param defaultValue
+	 * @return
+	 */
+	long getLong(@NonNull String path, long defaultValue);
+
+	/**
+	 * Get the value at the given path as a {@code double}. Reads the stored
+	 * value directly, without going through a {@link Serializer}.
+	 *
+	 * @param path
+	 * @return
+	 */
+	@NonNull
+	OptionalDouble getDouble(@NonNull String path);
+
+	/**
+	 * Get the value at the given path as a {@code double}, or the default
+	 * value if it is not available.
+	 *
+	 * @param path
+	 * @param defaultValue
+	 * @return
+	 */
+	double getDouble(@NonNull String path, double defaultValue);
+
+	/**
+	 * Get the value at the given path as a {@code boolean}. Reads the stored
+	 * value directly, without going through a {@link Serializer}.
+	 *
+	 * @param path
+	 * @return
+	 */
+	@NonNull
+	Optional<Boolean> getBoolean(@NonNull String path);
+
+	/**
+	 * Get the value at the given path as a {@code boolean}, or the default
+	 * value if it is not available.
+	 *
+	 * @param path
+	 * @param defaultValue
+	 * @return
+	 */
+	boolean getBoolean(@NonNull String path, boolean defaultValue);
+
+	/**
+	 * Get the list at the given path as an array of {@code int}. Lists of
+	 * numbers read from files are stored as primitives, so they are copied
+	 * into the array without boxing.
+	 *
+	 * @param path
+	 * @return
+	 *   the values, empty if the path is not a list
+	 */
+	@NonNull
+	Optional<int[]> getIntArray(@NonNull String path);
+
+	/**
+	 * Get the list at the given path as an array of {@code long}. Lists of
+	 * numbers read from files are stored as primitives, so they are copied
+	 * into the array without boxing.
+	 *
+	 * @param path
+	 * @return
+	 *   the values, empty if the path is not a list
+	 */
+	@NonNull
+	Optional<long[]> getLongArray(@NonNull String path);
+
+	/**
+	 * Get the list at the given path as an array of {@code double}. Lists of
+	 * numbers read from files are stored as primitives, so they are copied
+	 * into the array without boxing.
+	 *
+	 * @param path
+	 * @return
+	 *   the values, empty if the path is not a list
+	 */
+	@NonNull
+	Optional<double[]> getDoubleArray(@NonNull String path);
+
+	/**
+	 * Get a handle to the value at the given path. The handle resolves the
+	 * value once, making further reads via the handle free of lookups and
+	 * allocations.
+	 *
+	 * @param path
+	 * @param type
+	 * @return
+	 */
+	@NonNull
+	<T> ConfigHandle<T> handle(@NonNull String path, @NonNull Class<T> type);
+
+	/**
+	 * Get a handle to the value at the given path. The handle resolves the
+	 * value once, making further reads via the handle free of lookups and
+	 * allocations.
+	 *
+	 * @param path
+	 * @param serializer
+	 * @return
+	 */
+	@NonNull
+	<T> ConfigHandle<T> handle(@NonNull String path, @NonNull Serializer<T> serializer);
+
+	/**
+	 * Get a handle to the {@code int} value at the given path.
+	 *
+	 * @param path
+	 * @return
+	 * @see #handle(String, Class)
+	 */
+	@NonNull
+	ConfigHandle.OfInt intHandle(@NonNull String path);
+
+	/**
+	 * Get a handle to the {@code long} value at the given path.
+	 *
+	 * @param path
+	 * @return
+	 * @see #handle(String, Class)
+	 */
+	@NonNull
+	ConfigHandle.OfLong longHandle(@NonNull String path);
+
+	/**
+	 * Get a handle to the {@code double} value at the given path.
+	 *
+	 * @param path
+	 * @return
+	 * @see #handle(String, Class)
+	 */
+	@NonNull
+	ConfigHandle.OfDouble doubleHandle(@NonNull String path);
+
+	/**
+	 * Get a handle to the {@code boolean} value at the given path.
+	 *
+	 * @param path
+	 * @return
+	 * @see #handle(String, Class)
+	 */
+	@NonNull
+	ConfigHandle.OfBoolean booleanHandle(@NonNull String path);
+
+	/**
+	 * Subscribe to changes of the value at the given path. The listener is
+	 * called when the value at the path, or any value below it, changes
+	 * after the configuration is reloaded. Updates that do not touch the
+	 * path do not bind the value again.
+	 *
+	 * <p>
+	 * Listeners are called on the thread that performs the reload.
+	 *
+	 * @param path
+	 * @param type
+	 * @param listener
+	 * @return
+	 * @see Builder#withFileWatching(Duration)
+	 */
+	@NonNull
+	<T> ConfigSubscription subscribe(
+		@NonNull String path,
+		@NonNull Class<T> type,
+		@NonNull Consumer<Optional<T>> listener
+	);
+
+	/**
+	 * Subscribe to changes of the value at the given path.
+	 *
+	 * @param path
+	 * @param serializer
+	 * @param listener
+	 * @return
+	 * @see #subscribe(String, Class, Consumer)
+	 */
+	@NonNull
+	<T> ConfigSubscription subscribe(
+		@NonNull String path,
+		@NonNull Serializer<T> serializer,
+		@NonNull Consumer<Optional<T>> listener
+	);
+
 	/**
 	 * Scope this configuration to the specified path.
 	 *
@@ -100,6 +325,14 @@ public interface Config
 	 */
 	Config scope(String path);
 
+	/**
+	 * Stop watching files for changes. Values can still be read but are no
+	 * longer updated. Closing a scoped configuration closes the
+	 * configuration it was scoped from. Does nothing if files are not
+	 * watched.
+	 */
+	void close();
+
 	/**
 	 * Get a new {@link ConfigBuilder} to create a new configuration.
 	 *
@@ -113,7 +346,14 @@ public interface Config
 			null,
 			null,
 			Lists.immutable.empty(),
-			Maps.immutable.empty()
+			Maps.immutable.empty(),
+			false,
+			0,
+			null,
+			null,
+			null,
+			false,
+			null
 		);
 	}
 
@@ -172,6 +412,107 @@ public interface Config
 		@NonNull
 		Builder withRoot(@NonNull File root);
 
+		/**
+		 * Flatten all of the sources into a single precomputed view when
+		 * building. This makes lookups independent of how many sources are
+		 * layered, at the cost of resolving every available path when
+		 * {@link #build()} is called. Only use this if all added sources
+		 * are static.
+		 *
+		 * @return
+		 */
+		@NonNull
+		Builder withFlattenedSources();
+
+		/**
+		 * Cache objects that have been read and validated, so that asking
+		 * for the same path and type again returns the same instance. The
+		 * cache holds at most {@code maxSize} objects and evicts the least
+		 * recently used ones. Objects returned from a cache are shared, so
+		 * they should be treated as immutable.
+		 *
+		 * @param maxSize
+		 *   the maximum number of objects to keep, {@code 0} disables the
+		 *   cache
+		 * @return
+		 */
+		@NonNull
+		Builder withObjectCache(int maxSize);
+
+		/**
+		 * Watch files added via {@link #addFile(Path)} for changes and
+		 * reload them when they change. Files are reloaded in the background
+		 * and the configuration is updated atomically once all sources have
+		 * been read, reads are never blocked by a reload. If a changed file
+		 * can not be read the current configuration is kept.
+		 *
+		 * <p>
+		 * Changes are detected using notifications from the file system if
+		 * available, files are also checked for changes at the given
+		 * interval. Watching implies {@link #withFlattenedSources()}.
+		 *
+		 * @param pollInterval
+		 *   how often to check files for changes
+		 * @return
+		 */
+		@NonNull
+		Builder withFileWatching(@NonNull Duration pollInterval);
+
+		/**
+		 * Load sources using the given executor. Sources are loaded
+		 * concurrently, which reduces the time spent in {@link #build()}
+		 * when several files are added or when files are stored on slow
+		 * storage. The order sources were added in is kept when they are
+		 * merged. By default sources are loaded one at a time on the thread
+		 * calling {@link #build()}.
+		 *
+		 * @param executor
+		 * @return
+		 */
+		@NonNull
+		Builder withExecutor(@NonNull Executor executor);
+
+		/**
+		 * Keep binary snapshots of added files in the given directory. When
+		 * a file has been parsed a snapshot of it is written, the next time
+		 * the file is loaded the snapshot is memory-mapped instead of
+		 * parsing the file as long as the size, modification time and
+		 * checksum of the file match.
+		 *
+		 * @param directory
+		 * @return
+		 */
+		@NonNull
+		Builder withSnapshotDirectory(@NonNull Path directory);
+
+		/**
+		 * Parse added files lazily. When a file is loaded only the
+		 * positions of its top-level sections are recorded, a section is
+		 * parsed the first time something below it is read. This reduces
+		 * both the time to the first read and memory use for large files
+		 * where only some sections are used. Flattening the sources, which
+		 * is also done when watching files, reads every section when
+		 * building. Snapshots take priority over lazy parsing.
+		 *
+		 * @return
+		 */
+		@NonNull
+		Builder withLazyFiles();
+
+		/**
+		 * Parse added files in parallel using the given pool. The top-level
+		 * sections of a file are found with a quick scan and are then
+		 * parsed concurrently, which reduces the time to load large files
+		 * with many sections. Files with a single section and pools with a
+		 * parallelism of one are parsed on the calling thread. Snapshots
+		 * and lazy parsing take priority over parallel parsing.
+		 *
+		 * @param pool
+		 * @return
+		 */
+		@NonNull
+		Builder withParallelParsing(@NonNull ForkJoinPool pool);
+
 		/**
 		 * Add a file that should be loaded.
 		 *
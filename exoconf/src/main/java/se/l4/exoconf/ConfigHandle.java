@@ -0,0 +1,177 @@
+package se.l4.exoconf;
+
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Handle to a value in a {@link Config}. Handles resolve their path and
+ * serializer once and keep the bound value, making reads cheap enough to be
+ * used in tight loops. Handles are created via
+ * {@link Config#handle(String, Class)}.
+ *
+ * <p>
+ * Example usage:
+ * <pre>
+ * ConfigHandle<Size> size = config.handle("thumbs.medium", Size.class);
+ *
+ * for(...)
+ * {
+ *	Size current = size.getOrDefault(DEFAULT_SIZE);
+ * }
+ * </pre>
+ */
+public interface ConfigHandle<T>
+{
+	/**
+	 * Get the path this handle reads.
+	 *
+	 * @return
+	 */
+	@NonNull
+	String getPath();
+
+	/**
+	 * Get the current value. The returned instance is shared between calls
+	 * and reading it does not allocate.
+	 *
+	 * @return
+	 */
+	@NonNull
+	Optional<T> get();
+
+	/**
+	 * Get the current value or a default value if it is not available.
+	 *
+	 * @param defaultValue
+	 * @return
+	 */
+	T getOrDefault(T defaultValue);
+
+	/**
+	 * Handle to an {@code int} value, created via {@link Config#intHandle(String)}.
+	 */
+	interface OfInt
+	{
+		/**
+		 * Get the path this handle reads.
+		 *
+		 * @return
+		 */
+		@NonNull
+		String getPath();
+
+		/**
+		 * Get the current value. The returned instance is shared between
+		 * calls and reading it does not allocate.
+		 *
+		 * @return
+		 */
+		@NonNull
+		OptionalInt get();
+
+		/**
+		 * Get the current value or a default value if it is not available.
+		 *
+		 * @param defaultValue
+		 * @return
+		 */
+		int getOrDefault(int defaultValue);
+	}
+
+	/**
+	 * Handle to a {@code long} value, created via {@link Config#longHandle(String)}.
+	 */
+	interface OfLong
+	{
+		/**
+		 * Get the path this handle reads.
+		 *
+		 * @return
+		 */
+		@NonNull
+		String getPath();
+
+		/**
+		 * Get the current value. The returned instance is shared between
+		 * calls and reading it does not allocate.
+		 *
+		 * @return
+		 */
+		@NonNull
+		OptionalLong get();
+
+		/**
+		 * Get the current value or a default value if it is not available.
+		 *
+		 * @param defaultValue
+		 * @return
+		 */
+		long getOrDefault(long defaultValue);
+	}
+
+	/**
+	 * Handle to a {@code double} value, created via {@link Config#doubleHandle(String)}.
+	 */
+	interface OfDouble
+	{
+		/**
+		 * Get the path this handle reads.
+		 *
+		 * @return
+		 */
+		@NonNull
+		String getPath();
+
+		/**
+		 * Get the current value. The returned instance is shared between
+		 * calls and reading it does not allocate.
+		 *
+		 * @return
+		 */
+		@NonNull
+		OptionalDouble get();
+
+		/**
+		 * Get the current value or a default value if it is not available.
+		 *
+		 * @param defaultValue
+		 * @return
+		 */
+		double getOrDefault(double defaultValue);
+	}
+
+	/**
+	 * Handle to a {@code boolean} value, created via {@link Config#booleanHandle(String)}.
+	 */
+	interface OfBoolean
+	{
+		/**
+		 * Get the path this handle reads.
+		 *
+		 * @return
+		 */
+		@NonNull
+		String getPath();
+
+		/**
+		 * Get the current value. The returned instance is shared between
+		 * calls and reading it does not allocate.
+		 *
+		 * @return
+		 */
+		@NonNull
+		Optional<Boolean> get();
+
+		/**
+		 * Get the current value or a default value if it is not available.
+		 *
+		 * @param defaultValue
+		 * @return
+		 */
+		boolean getOrDefault(boolean defaultValue);
+	}
+}
@@ -0,0 +1,23 @@
+package se.l4.exoconf;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Subscription to changes of a value in a {@link Config}, created via
+ * {@link Config#subscribe(String, Class, java.util.function.Consumer)}.
+ */
+public interface ConfigSubscription
+{
+	/**
+	 * Get the path this subscription is for.
+	 *
+	 * @return
+	 */
+	@NonNull
+	String getPath();
+
+	/**
+	 * Stop receiving changes.
+	 */
+	void unsubscribe();
+}
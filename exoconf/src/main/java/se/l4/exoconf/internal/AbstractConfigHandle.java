@@ -0,0 +1,49 @@
+package se.l4.exoconf.internal;
+
+import java.util.function.Function;
+
+/**
+ * Base for handles created by {@link DefaultConfig}. The resolved value is
+ * kept in a volatile field so that reading it is a single load, resolving
+ * only happens when the handle is created and when the source is updated.
+ */
+public abstract class AbstractConfigHandle<V>
+{
+	private final String path;
+	private final Function<DefaultConfig.State, V> resolver;
+
+	private long generation;
+
+	protected volatile V value;
+
+	protected AbstractConfigHandle(String path, Function<DefaultConfig.State, V> resolver)
+	{
+		this.path = path;
+		this.resolver = resolver;
+
+		generation = -1;
+	}
+
+	public String getPath()
+	{
+		return path;
+	}
+
+	/**
+	 * Resolve the value against the given state. States older than the one
+	 * last resolved against are ignored, so concurrent refreshes can not
+	 * replace a newer value with an older one.
+	 *
+	 * @param state
+	 */
+	synchronized void refresh(DefaultConfig.State state)
+	{
+		if(state.generation <= generation)
+		{
+			return;
+		}
+
+		value = resolver.apply(state);
+		generation = state.generation;
+	}
+}
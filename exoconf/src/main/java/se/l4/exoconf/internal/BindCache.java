@@ -0,0 +1,174 @@
+package se.l4.exoconf.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import se.l4.exobytes.Serializer;
+
+/**
+ * Bounded cache of objects that have been bound and validated, keyed on the
+ * {@link Serializer} used and the path.
+ *
+ * <p>
+ * Lookups do not lock or allocate. Every entry records an approximate time
+ * of last use and when the cache grows past its size the least recently
+ * used entries are evicted in a batch.
+ *
+ * <p>
+ * A cache is only valid for the source it was populated from and is
+ * replaced whenever the source changes.
+ */
+public class BindCache
+{
+	/**
+	 * Divisor used to calculate how many entries to evict at once, evicting
+	 * a batch keeps the cost of sorting entries low.
+	 */
+	private static final int EVICT_DIVISOR = 10;
+
+	private final int maxSize;
+	private final ConcurrentHashMap<Serializer<?>, ConcurrentHashMap<String, Entry>> cache;
+	private final AtomicInteger size;
+	private final AtomicLong clock;
+
+	public BindCache(int maxSize)
+	{
+		this.maxSize = maxSize;
+
+		cache = new ConcurrentHashMap<>();
+		size = new AtomicInteger();
+		clock = new AtomicLong();
+	}
+
+	/**
+	 * Get a previously bound object.
+	 *
+	 * @param path
+	 * @param serializer
+	 * @return
+	 *   the bound object or {@code null} if not cached
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Optional<T> get(String path, Serializer<T> serializer)
+	{
+		ConcurrentHashMap<String, Entry> entries = cache.get(serializer);
+		if(entries == null)
+		{
+			return null;
+		}
+
+		Entry entry = entries.get(path);
+		if(entry == null)
+		{
+			return null;
+		}
+
+		/*
+		 * The clock only advances on puts, so repeated hits usually see the
+		 * same time and can skip the write.
+		 */
+		long now = clock.get();
+		if(entry.accessed != now)
+		{
+			entry.accessed = now;
+		}
+
+		return (Optional<T>) entry.value;
+	}
+
+	/**
+	 * Store a bound object.
+	 *
+	 * @param path
+	 * @param serializer
+	 * @param value
+	 */
+	public <T> void put(String path, Serializer<T> serializer, Optional<T> value)
+	{
+		ConcurrentHashMap<String, Entry> entries = cache.computeIfAbsent(serializer, k -> new ConcurrentHashMap<>());
+		Entry entry = new Entry(value, clock.incrementAndGet());
+		if(entries.put(path, entry) == null && size.incrementAndGet() > maxSize)
+		{
+			evict();
+		}
+	}
+
+	/**
+	 * Evict the least recently used entries until the cache is a batch
+	 * below its maximum size.
+	 */
+	private void evict()
+	{
+		synchronized(this)
+		{
+			if(size.get() <= maxSize)
+			{
+				// Another thread evicted while waiting for the lock
+				return;
+			}
+
+			List<Eviction> candidates = new ArrayList<>(size.get());
+			for(Map.Entry<Serializer<?>, ConcurrentHashMap<String, Entry>> e : cache.entrySet())
+			{
+				for(Map.Entry<String, Entry> entry : e.getValue().entrySet())
+				{
+					candidates.add(new Eviction(e.getValue(), entry.getKey(), entry.getValue()));
+				}
+			}
+
+			candidates.sort(Comparator.comparingLong(c -> c.accessed));
+
+			int target = maxSize - maxSize / EVICT_DIVISOR;
+			for(Eviction candidate : candidates)
+			{
+				if(size.get() <= target)
+				{
+					break;
+				}
+
+				if(candidate.entries.remove(candidate.path, candidate.entry))
+				{
+					size.decrementAndGet();
+				}
+			}
+		}
+	}
+
+	private static class Entry
+	{
+		private final Optional<?> value;
+		private volatile long accessed;
+
+		public Entry(Optional<?> value, long accessed)
+		{
+			this.value = value;
+			this.accessed = accessed;
+		}
+	}
+
+	/**
+	 * Entry considered for eviction, with the time of access captured so
+	 * that concurrent hits do not change the order while sorting.
+	 */
+	private static class Eviction
+	{
+		private final ConcurrentHashMap<String, Entry> entries;
+		private final String path;
+		private final Entry entry;
+		private final long accessed;
+
+		public Eviction(ConcurrentHashMap<String, Entry> entries, String path, Entry entry)
+		{
+			this.entries = entries;
+			this.path = path;
+			this.entry = entry;
+			this.accessed = entry.accessed;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package se.l4.exoconf.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+import se.l4.exobytes.Serializer;
+import se.l4.exobytes.streaming.StreamingInput;
+import se.l4.exobytes.streaming.StreamingOutput;
+import se.l4.exobytes.streaming.Token;
+import se.l4.exoconf.ConfigException;
+
+/**
+ * Serializer for {@link ByteBuffer}. Values are either Base64 encoded or a
+ * reference to a file in the form {@code "@file:path/to/file"}, resolved in
+ * the same way as {@link PathSerializer}. Referenced files are
+ * memory-mapped, so their contents are never read into the heap.
+ *
+ * <p>
+ * File references must be quoted in config files, as an unquoted colon
+ * separates a key from its value. The unquoted form is reported as an
+ * error instead of being read as the value {@code @file}.
+ *
+ * <p>
+ * Every file is mapped once and every read returns a new read-only view of
+ * the mapping, with its own position and limit. A file is mapped again if
+ * its size or modification time changes.
+ */
+public class ByteBufferSerializer
+	implements Serializer<ByteBuffer>
+{
+	/**
+	 * Prefix used for values that reference a file.
+	 */
+	public static final String FILE_PREFIX = "@file:";
+
+	/**
+	 * What remains of an unquoted file reference, the colon ends the value.
+	 */
+	private static final String UNQUOTED_FILE = "@file";
+
+	private final Path root;
+	private final ConcurrentHashMap<Path, Mapping> mappings;
+
+	public ByteBufferSerializer(Path root)
+	{
+		this.root = root;
+
+		mappings = new ConcurrentHashMap<>();
+	}
+
+	@Override
+	public ByteBuffer read(StreamingInput in)
+		throws IOException
+	{
+		in.next(Token.VALUE);
+
+		String value = in.readString();
+		if(value == null) return null;
+
+		if(value.startsWith(FILE_PREFIX))
+		{
+			return map(value.substring(FILE_PREFIX.length()));
+		}
+		else if(value.equals(UNQUOTED_FILE))
+		{
+			throw new ConfigException("File references must be quoted, such as \"" + FILE_PREFIX + "path/to/file\"");
+		}
+
+		return ByteBuffer.wrap(Base64.getDecoder().decode(value)).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Get a view of the given file, mapping it if it has not been mapped
+	 * before or if it has changed since it was mapped.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	private ByteBuffer map(String file)
+		throws IOException
+	{
+		Path path = FileSystems.getDefault().getPath(file);
+		if(! path.isAbsolute() && root != null)
+		{
+			path = root.resolve(path);
+		}
+
+		path = path.toAbsolutePath().normalize();
+
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		long size = attributes.size();
+		long modified = attributes.lastModifiedTime().toMillis();
+
+		Mapping mapping = mappings.get(path);
+		if(mapping == null || mapping.size != size || mapping.modified != modified)
+		{
+			try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+			{
+				mapping = new Mapping(size, modified, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			}
+
+			mappings.put(path, mapping);
+		}
+
+		return mapping.buffer.asReadOnlyBuffer();
+	}
+
+	@Override
+	public void write(ByteBuffer object, StreamingOutput stream)
+		throws IOException
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * A mapped file together with the state of the file when it was mapped.
+	 */
+	private static class Mapping
+	{
+		private final long size;
+		private final long modified;
+		private final ByteBuffer buffer;
+
+		public Mapping(long size, long modified, ByteBuffer buffer)
+		{
+			this.size = size;
+			this.modified = modified;
+			this.buffer = buffer;
+		}
+	}
+}
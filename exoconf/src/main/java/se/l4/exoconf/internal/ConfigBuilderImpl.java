@@ -4,22 +4,21 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.validation.ValidatorFactory;
 
-import org.eclipse.collections.api.factory.Lists;
 import org.eclipse.collections.api.list.ImmutableList;
-import org.eclipse.collections.api.list.MutableList;
 import org.eclipse.collections.api.map.ImmutableMap;
 
 import se.l4.exobytes.Serializers;
 import se.l4.exoconf.Config;
 import se.l4.exoconf.ConfigException;
 import se.l4.exoconf.sources.ConfigSource;
-import se.l4.exoconf.sources.EnvironmentConfigSource;
 import se.l4.exoconf.sources.FileConfigSource;
-import se.l4.exoconf.sources.MapBasedConfigSource;
-import se.l4.exoconf.sources.MergingConfigSource;
+import se.l4.exoconf.sources.LazyFileConfigSource;
 import se.l4.ylem.io.IOSupplier;
 
 /**
@@ -29,19 +28,34 @@ public class ConfigBuilderImpl
 	implements Config.Builder
 {
 	private final ImmutableMap<String, Object> keys;
-	private final ImmutableList<IOSupplier<ConfigSource>> suppliers;
+	private final ImmutableList<SourceDefinition> suppliers;
 
 	private final Serializers serializers;
 	private final ValidatorFactory validatorFactory;
 
 	private final File root;
 
+	private final boolean flatten;
+	private final int cacheSize;
+	private final Duration watchInterval;
+	private final Executor executor;
+	private final Path snapshotDirectory;
+	private final boolean lazyFiles;
+	private final ForkJoinPool parsePool;
+
 	public ConfigBuilderImpl(
 		Serializers serializers,
 		ValidatorFactory validatorFactory,
 		File root,
-		ImmutableList<IOSupplier<ConfigSource>> suppliers,
-		ImmutableMap<String, Object> keys
+		ImmutableList<SourceDefinition> suppliers,
+		ImmutableMap<String, Object> keys,
+		boolean flatten,
+		int cacheSize,
+		Duration watchInterval,
+		Executor executor,
+		Path snapshotDirectory,
+		boolean lazyFiles,
+		ForkJoinPool parsePool
 	)
 	{
 		this.serializers = serializers;
@@ -49,6 +63,13 @@ public class ConfigBuilderImpl
 		this.root = root;
 		this.keys = keys;
 		this.suppliers = suppliers;
+		this.flatten = flatten;
+		this.cacheSize = cacheSize;
+		this.watchInterval = watchInterval;
+		this.executor = executor;
+		this.snapshotDirectory = snapshotDirectory;
+		this.lazyFiles = lazyFiles;
+		this.parsePool = parsePool;
 	}
 
 	@Override
@@ -59,7 +80,14 @@ public class ConfigBuilderImpl
 			validatorFactory,
 			root,
 			suppliers,
-			keys
+			keys,
+			flatten,
+			cacheSize,
+			watchInterval,
+			executor,
+			snapshotDirectory,
+			lazyFiles,
+			parsePool
 		);
 	}
 
@@ -71,7 +99,14 @@ public class ConfigBuilderImpl
 			validatorFactory,
 			root,
 			suppliers,
-			keys
+			keys,
+			flatten,
+			cacheSize,
+			watchInterval,
+			executor,
+			snapshotDirectory,
+			lazyFiles,
+			parsePool
 		);
 	}
 
@@ -95,7 +130,147 @@ public class ConfigBuilderImpl
 			validatorFactory,
 			root,
 			suppliers,
-			keys
+			keys,
+			flatten,
+			cacheSize,
+			watchInterval,
+			executor,
+			snapshotDirectory,
+			lazyFiles,
+			parsePool
+		);
+	}
+
+	@Override
+	public Config.Builder withFlattenedSources()
+	{
+		return new ConfigBuilderImpl(
+			serializers,
+			validatorFactory,
+			root,
+			suppliers,
+			keys,
+			true,
+			cacheSize,
+			watchInterval,
+			executor,
+			snapshotDirectory,
+			lazyFiles,
+			parsePool
+		);
+	}
+
+	@Override
+	public Config.Builder withObjectCache(int maxSize)
+	{
+		return new ConfigBuilderImpl(
+			serializers,
+			validatorFactory,
+			root,
+			suppliers,
+			keys,
+			flatten,
+			maxSize,
+			watchInterval,
+			executor,
+			snapshotDirectory,
+			lazyFiles,
+			parsePool
+		);
+	}
+
+	@Override
+	public Config.Builder withFileWatching(Duration pollInterval)
+	{
+		return new ConfigBuilderImpl(
+			serializers,
+			validatorFactory,
+			root,
+			suppliers,
+			keys,
+			flatten,
+			cacheSize,
+			pollInterval,
+			executor,
+			snapshotDirectory,
+			lazyFiles,
+			parsePool
+		);
+	}
+
+	@Override
+	public Config.Builder withExecutor(Executor executor)
+	{
+		return new ConfigBuilderImpl(
+			serializers,
+			validatorFactory,
+			root,
+			suppliers,
+			keys,
+			flatten,
+			cacheSize,
+			watchInterval,
+			executor,
+			snapshotDirectory,
+			lazyFiles,
+			parsePool
+		);
+	}
+
+	@Override
+	public Config.Builder withSnapshotDirectory(Path directory)
+	{
+		return new ConfigBuilderImpl(
+			serializers,
+			validatorFactory,
+			root,
+			suppliers,
+			keys,
+			flatten,
+			cacheSize,
+			watchInterval,
+			executor,
+			directory,
+			lazyFiles,
+			parsePool
+		);
+	}
+
+	@Override
+	public Config.Builder withLazyFiles()
+	{
+		return new ConfigBuilderImpl(
+			serializers,
+			validatorFactory,
+			root,
+			suppliers,
+			keys,
+			flatten,
+			cacheSize,
+			watchInterval,
+			executor,
+			snapshotDirectory,
+			true,
+			parsePool
+		);
+	}
+
+	@Override
+	public Config.Builder withParallelParsing(ForkJoinPool pool)
+	{
+		return new ConfigBuilderImpl(
+			serializers,
+			validatorFactory,
+			root,
+			suppliers,
+			keys,
+			flatten,
+			cacheSize,
+			watchInterval,
+			executor,
+			snapshotDirectory,
+			lazyFiles,
+			pool
 		);
 	}
 
@@ -120,29 +295,21 @@ public class ConfigBuilderImpl
 			root = file.getParentFile();
 		}
 
-		IOSupplier<ConfigSource> supplier = () -> {
-			if(! file.exists())
-			{
-				throw new ConfigException("The file " + file + " does not exist");
-			}
-			else if(! file.isFile())
-			{
-				throw new ConfigException(file + " is not a file");
-			}
-			else if(! file.canRead())
-			{
-				throw new ConfigException("Can not read " + file + ", check permissions");
-			}
-
-			return FileConfigSource.read(file);
-		};
+		IOSupplier<ConfigSource> supplier = () -> readFile(file, null, false, null);
 
 		return new ConfigBuilderImpl(
 			serializers,
 			validatorFactory,
 			root,
-			suppliers.newWith(supplier),
-			keys
+			suppliers.newWith(SourceDefinition.forFile(file, supplier)),
+			keys,
+			flatten,
+			cacheSize,
+			watchInterval,
+			executor,
+			snapshotDirectory,
+			lazyFiles,
+			parsePool
 		);
 	}
 
@@ -154,8 +321,15 @@ public class ConfigBuilderImpl
 			serializers,
 			validatorFactory,
 			root,
-			suppliers.newWith(supplier),
-			keys
+			suppliers.newWith(SourceDefinition.of("stream", supplier)),
+			keys,
+			flatten,
+			cacheSize,
+			watchInterval,
+			executor,
+			snapshotDirectory,
+			lazyFiles,
+			parsePool
 		);
 	}
 
@@ -166,8 +340,15 @@ public class ConfigBuilderImpl
 			serializers,
 			validatorFactory,
 			root,
-			suppliers.newWith(() -> source),
-			keys
+			suppliers.newWith(SourceDefinition.forSource(source)),
+			keys,
+			flatten,
+			cacheSize,
+			watchInterval,
+			executor,
+			snapshotDirectory,
+			lazyFiles,
+			parsePool
 		);
 	}
 
@@ -179,10 +360,62 @@ public class ConfigBuilderImpl
 			validatorFactory,
 			root,
 			suppliers,
-			keys.newWithKeyValue(key, value)
+			keys.newWithKeyValue(key, value),
+			flatten,
+			cacheSize,
+			watchInterval,
+			executor,
+			snapshotDirectory,
+			lazyFiles,
+			parsePool
 		);
 	}
 
+	/**
+	 * Read a config file, optionally via a snapshot cache, lazily or in
+	 * parallel.
+	 *
+	 * @param file
+	 * @param snapshots
+	 * @param lazy
+	 * @param pool
+	 *   pool to parse the file in parallel on, or {@code null} to parse it
+	 *   on the calling thread
+	 * @return
+	 * @throws IOException
+	 */
+	private static ConfigSource readFile(File file, SnapshotCache snapshots, boolean lazy, ForkJoinPool pool)
+		throws IOException
+	{
+		if(! file.exists())
+		{
+			throw new ConfigException("The file " + file + " does not exist");
+		}
+		else if(! file.isFile())
+		{
+			throw new ConfigException(file + " is not a file");
+		}
+		else if(! file.canRead())
+		{
+			throw new ConfigException("Can not read " + file + ", check permissions");
+		}
+
+		if(snapshots != null)
+		{
+			return snapshots.read(file.toPath());
+		}
+		else if(lazy)
+		{
+			return LazyFileConfigSource.read(file.toPath());
+		}
+		else if(pool != null)
+		{
+			return FileConfigSource.readParallel(file.toPath(), pool);
+		}
+
+		return FileConfigSource.read(file);
+	}
+
 	@Override
 	public Config build()
 	{
@@ -199,24 +432,29 @@ public class ConfigBuilderImpl
 				.build();
 		}
 
-		MutableList<ConfigSource> sources = Lists.mutable.empty();
-		sources.add(new MapBasedConfigSource(keys.toImmutable()));
-
-		for(IOSupplier<ConfigSource> supplier : suppliers)
+		ImmutableList<SourceDefinition> definitions = suppliers;
+		if(snapshotDirectory != null || lazyFiles || parsePool != null)
 		{
-			try
-			{
-				sources.add(supplier.get());
-			}
-			catch(IOException e)
-			{
-				throw new ConfigException("Unable to read configuration; " + e.getMessage(), e);
-			}
+			SnapshotCache snapshots = snapshotDirectory == null ? null : new SnapshotCache(snapshotDirectory);
+			definitions = definitions.collect(d -> d.getFile() == null
+				? d
+				: SourceDefinition.forFile(d.getFile(), () -> readFile(d.getFile(), snapshots, lazyFiles, parsePool))
+			);
 		}
 
-		sources.add(new EnvironmentConfigSource());
+		boolean flattened = flatten || watchInterval != null;
+		SourceLoader loader = new SourceLoader(keys, definitions, flattened, executor);
+		ConfigWatcher watcher = watchInterval == null ? null : new ConfigWatcher(loader, watchInterval);
+
+		// Missing paths can only be remembered if sources do not change on their own
+		boolean cacheMissing = flattened || definitions.allSatisfy(SourceDefinition::hasStaticValues);
+
+		DefaultConfig config = new DefaultConfig(serializers, validatorFactory, loader.load(), root, cacheSize, cacheMissing);
+		if(watcher != null)
+		{
+			watcher.start(config);
+		}
 
-		ConfigSource source = new MergingConfigSource(sources.toReversed());
-		return new DefaultConfig(serializers, validatorFactory, source, root);
+		return config;
 	}
 }
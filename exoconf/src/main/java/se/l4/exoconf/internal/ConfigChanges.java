@@ -0,0 +1,120 @@
+package se.l4.exoconf.internal;
+
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.set.MutableSet;
+import org.eclipse.collections.api.set.SetIterable;
+
+import se.l4.exoconf.sources.ConfigKeys;
+import se.l4.exoconf.sources.ConfigSource;
+import se.l4.exoconf.sources.FlattenedConfigSource;
+
+/**
+ * The paths that changed between two sources. Used to only refresh the
+ * handles and subscriptions that are affected by an update.
+ */
+class ConfigChanges
+{
+	/**
+	 * Changes used when the sources can not be compared, every path is
+	 * treated as changed.
+	 */
+	private static final ConfigChanges ALL = new ConfigChanges(null, null);
+
+	private final SetIterable<String> changed;
+	private final SetIterable<String> affected;
+
+	private ConfigChanges(SetIterable<String> changed, SetIterable<String> affected)
+	{
+		this.changed = changed;
+		this.affected = affected;
+	}
+
+	/**
+	 * Get if nothing has changed.
+	 *
+	 * @return
+	 */
+	public boolean isEmpty()
+	{
+		return changed != null && changed.isEmpty();
+	}
+
+	/**
+	 * Get if the value at the given path, or any value below it, has
+	 * changed.
+	 *
+	 * @param path
+	 * @return
+	 */
+	public boolean intersects(String path)
+	{
+		if(changed == null)
+		{
+			return true;
+		}
+
+		if(affected.contains(path))
+		{
+			// The path or one of its children changed
+			return true;
+		}
+
+		// Check if any of the parents changed
+		int idx = path.lastIndexOf(ConfigKeys.PATH_DELIMITER);
+		while(idx > 0)
+		{
+			path = path.substring(0, idx);
+			if(changed.contains(path))
+			{
+				return true;
+			}
+
+			idx = path.lastIndexOf(ConfigKeys.PATH_DELIMITER);
+		}
+
+		return changed.contains("");
+	}
+
+	/**
+	 * Calculate the changes between two sources. Only flattened sources can
+	 * be compared, for other sources every path is treated as changed.
+	 *
+	 * @param previous
+	 * @param current
+	 * @return
+	 */
+	public static ConfigChanges between(ConfigSource previous, ConfigSource current)
+	{
+		if(! (previous instanceof FlattenedConfigSource) || ! (current instanceof FlattenedConfigSource))
+		{
+			return ALL;
+		}
+
+		SetIterable<String> changed = ((FlattenedConfigSource) current).diff((FlattenedConfigSource) previous);
+
+		MutableSet<String> affected = Sets.mutable.empty();
+		for(String path : changed)
+		{
+			int idx = path.lastIndexOf(ConfigKeys.PATH_DELIMITER);
+			while(idx > 0)
+			{
+				path = path.substring(0, idx);
+				if(! affected.add(path))
+				{
+					// Parents of this path have already been added
+					break;
+				}
+
+				idx = path.lastIndexOf(ConfigKeys.PATH_DELIMITER);
+			}
+		}
+
+		if(! changed.isEmpty())
+		{
+			affected.add("");
+			affected.addAllIterable(changed);
+		}
+
+		return new ConfigChanges(changed, affected);
+	}
+}
@@ -0,0 +1,302 @@
+package se.l4.exoconf.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.collections.api.factory.Maps;
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.api.set.MutableSet;
+
+/**
+ * Watches the files of a {@link SourceLoader} and updates a
+ * {@link DefaultConfig} when they change. A {@link WatchService} is used to
+ * be notified about changes, with files also being checked at a fixed
+ * interval in case the file system does not support notifications. Files
+ * with a notification are always reloaded, as edits that keep the size
+ * and modification time of a file can not be detected by polling.
+ *
+ * <p>
+ * Changed files are reloaded on the thread of the watcher, the config is
+ * only updated once all of its sources have been loaded and merged. If a
+ * reload fails the files are tried again at the next check. The watcher
+ * only holds a weak reference to the config and stops when it is no longer
+ * used or when {@link #stop()} is called.
+ */
+public class ConfigWatcher
+	implements Runnable
+{
+	private static final System.Logger LOGGER = System.getLogger(ConfigWatcher.class.getName());
+
+	private final SourceLoader loader;
+	private final Duration interval;
+	private final ImmutableList<File> files;
+	private final MutableMap<File, FileState> states;
+
+	/**
+	 * Files that have been reported as changed but not yet been reloaded.
+	 */
+	private final MutableSet<File> pending;
+
+	private WeakReference<DefaultConfig> config;
+	private WatchService watchService;
+	private volatile boolean stopped;
+	private boolean failing;
+
+	/**
+	 * Create a new watcher, the current state of the files is recorded so
+	 * the watcher should be created before the sources are loaded.
+	 *
+	 * @param loader
+	 * @param interval
+	 */
+	public ConfigWatcher(SourceLoader loader, Duration interval)
+	{
+		this.loader = loader;
+		this.interval = interval;
+
+		files = loader.getFiles();
+		pending = Sets.mutable.empty();
+		states = Maps.mutable.empty();
+		for(File file : files)
+		{
+			states.put(file, FileState.of(file));
+		}
+	}
+
+	/**
+	 * Start watching for changes on a background thread.
+	 *
+	 * @param config
+	 */
+	public void start(DefaultConfig config)
+	{
+		this.config = new WeakReference<>(config);
+		config.setWatcher(this);
+
+		watchService = createWatchService();
+
+		Thread thread = new Thread(this, "exoconf-watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stop watching for changes. A reload that is in progress is allowed to
+	 * finish.
+	 */
+	public void stop()
+	{
+		stopped = true;
+
+		// Wake up the watcher, either from polling or from waiting
+		close(watchService);
+		synchronized(this)
+		{
+			notifyAll();
+		}
+	}
+
+	private WatchService createWatchService()
+	{
+		WatchService watchService = null;
+		try
+		{
+			watchService = FileSystems.getDefault().newWatchService();
+			for(File directory : files.collect(f -> f.getAbsoluteFile().getParentFile()).distinct())
+			{
+				directory.toPath().register(
+					watchService,
+					StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_DELETE
+				);
+			}
+
+			return watchService;
+		}
+		catch(IOException | UnsupportedOperationException e)
+		{
+			LOGGER.log(System.Logger.Level.DEBUG, "Unable to watch files, falling back to polling", e);
+
+			close(watchService);
+			return null;
+		}
+	}
+
+	@Override
+	public void run()
+	{
+		try
+		{
+			while(! stopped && awaitChanges())
+			{
+				DefaultConfig config = this.config.get();
+				if(config == null || stopped)
+				{
+					// Config is no longer used, stop watching
+					return;
+				}
+
+				MutableMap<File, FileState> current = Maps.mutable.empty();
+				for(File file : files)
+				{
+					current.put(file, FileState.of(file));
+				}
+
+				MutableList<File> changed = files
+					.select(f -> pending.contains(f) || ! current.get(f).equals(states.get(f)))
+					.toList();
+
+				if(changed.isEmpty())
+				{
+					continue;
+				}
+
+				try
+				{
+					config.update(loader.reload(changed));
+
+					// Only remember the files once they have been loaded
+					states.putAll(current);
+					pending.clear();
+					failing = false;
+				}
+				catch(RuntimeException e)
+				{
+					// Try the files again at the next check
+					pending.addAll(changed);
+
+					LOGGER.log(
+						failing ? System.Logger.Level.DEBUG : System.Logger.Level.WARNING,
+						"Unable to reload configuration, keeping current values; " + e.getMessage(),
+						e
+					);
+					failing = true;
+				}
+			}
+		}
+		finally
+		{
+			close(watchService);
+		}
+	}
+
+	/**
+	 * Wait until the file system reports a change or until it is time to
+	 * poll the files.
+	 *
+	 * @return
+	 *   if watching should continue
+	 */
+	private boolean awaitChanges()
+	{
+		try
+		{
+			if(watchService == null)
+			{
+				synchronized(this)
+				{
+					if(! stopped)
+					{
+						wait(interval.toMillis());
+					}
+				}
+				return true;
+			}
+
+			WatchKey key = watchService.poll(interval.toMillis(), TimeUnit.MILLISECONDS);
+			while(key != null)
+			{
+				Path directory = (Path) key.watchable();
+				for(WatchEvent<?> event : key.pollEvents())
+				{
+					if(event.context() instanceof Path)
+					{
+						Path changed = directory.resolve((Path) event.context()).normalize();
+						files.select(f -> f.getAbsoluteFile().toPath().normalize().equals(changed))
+							.forEach(pending::add);
+					}
+				}
+
+				key.reset();
+
+				key = watchService.poll();
+			}
+
+			return true;
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		catch(ClosedWatchServiceException e)
+		{
+			return false;
+		}
+	}
+
+	private static void close(WatchService watchService)
+	{
+		if(watchService == null) return;
+
+		try
+		{
+			watchService.close();
+		}
+		catch(IOException e)
+		{
+			// Nothing to do if the watch service can not be closed
+		}
+	}
+
+	/**
+	 * Size and modification time of a file, used to detect changes.
+	 */
+	private static class FileState
+	{
+		private final long lastModified;
+		private final long length;
+
+		private FileState(long lastModified, long length)
+		{
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		public static FileState of(File file)
+		{
+			return new FileState(file.lastModified(), file.length());
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Long.hashCode(lastModified) * 31 + Long.hashCode(length);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if(this == obj) return true;
+			if(obj == null || getClass() != obj.getClass()) return false;
+
+			FileState other = (FileState) obj;
+			return lastModified == other.lastModified
+				&& length == other.length;
+		}
+	}
+}
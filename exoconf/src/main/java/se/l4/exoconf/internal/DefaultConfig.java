@@ -1,73 +1,277 @@
 package se.l4.exoconf.internal;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
 
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.list.primitive.DoubleList;
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.list.primitive.LongList;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+
 import se.l4.exobytes.Serializer;
 import se.l4.exobytes.Serializers;
 import se.l4.exobytes.streaming.StreamingInput;
 import se.l4.exoconf.Config;
 import se.l4.exoconf.ConfigException;
+import se.l4.exoconf.ConfigHandle;
 import se.l4.exoconf.ConfigKey;
+import se.l4.exoconf.ConfigSubscription;
 import se.l4.exoconf.internal.streaming.MapInput;
 import se.l4.exoconf.internal.streaming.NullInput;
+import se.l4.exoconf.internal.streaming.ValueCache;
+import se.l4.exoconf.internal.streaming.ValueInput;
+import se.l4.exoconf.sources.ConfigKeys;
 import se.l4.exoconf.sources.ConfigSource;
 
 /**
  * Default implementation of {@link Config}.
+ *
+ * <p>
+ * The source and everything derived from it, such as bound objects and paths
+ * known to be missing, is kept in a single {@link State} that is replaced as
+ * a whole when the source is updated. Every read works against the state
+ * that was current when it started, so reads never block and never see a
+ * partially applied update.
  */
 public class DefaultConfig
 	implements Config
 {
+	private static final System.Logger LOGGER = System.getLogger(DefaultConfig.class.getName());
+
+	private static final Optional<Boolean> TRUE = Optional.of(true);
+	private static final Optional<Boolean> FALSE = Optional.of(false);
+
 	private final Serializers collection;
+	private final ObjectBinder binder;
 	private final ValidatorFactory validatorFactory;
-	private final ConfigSource source;
+	private final int cacheSize;
+	private final boolean cacheMissing;
+
+	private final Set<AbstractConfigHandle<?>> handles;
+	private final Set<DefaultConfigSubscription<?>> subscriptions;
+
+	private volatile State state;
+	private volatile ConfigWatcher watcher;
 
 	DefaultConfig(
 		Serializers collection,
 		ValidatorFactory validatorFactory,
 		ConfigSource source,
-		File root
+		File root,
+		int cacheSize,
+		boolean cacheMissing
 	)
 	{
 		this.collection = collection;
 		this.validatorFactory = validatorFactory;
-		this.source = source;
+		this.cacheSize = cacheSize;
+		this.cacheMissing = cacheMissing;
+
+		handles = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+		subscriptions = Collections.synchronizedSet(new LinkedHashSet<>());
+		state = new State(0, source, cacheSize > 0 ? new BindCache(cacheSize) : null, cacheMissing);
 
 		collection.register(File.class, new FileSerializer(root));
 		collection.register(Path.class, new PathSerializer(root == null ? null : root.toPath()));
+		collection.register(ByteBuffer.class, new ByteBufferSerializer(root == null ? null : root.toPath()));
 		collection.register(ConfigKey.class, new ConfigKey.ConfigKeySerializer(this));
+
+		binder = new ObjectBinder(collection);
+	}
+
+	/**
+	 * Set the watcher that updates this config, stopped when this config is
+	 * closed.
+	 *
+	 * @param watcher
+	 */
+	void setWatcher(ConfigWatcher watcher)
+	{
+		this.watcher = watcher;
+	}
+
+	@Override
+	public void close()
+	{
+		ConfigWatcher watcher = this.watcher;
+		if(watcher != null)
+		{
+			watcher.stop();
+		}
+	}
+
+	/**
+	 * Replace the source of this config. Readers that have already started
+	 * continue to use the previous source, new reads use the new source.
+	 * Handles and subscriptions are only refreshed if a value at or below
+	 * their path changed.
+	 *
+	 * @param source
+	 */
+	synchronized void update(ConfigSource source)
+	{
+		ConfigChanges changes = ConfigChanges.between(state.source, source);
+		if(changes.isEmpty())
+		{
+			return;
+		}
+
+		State next = new State(
+			state.generation + 1,
+			source,
+			cacheSize > 0 ? new BindCache(cacheSize) : null,
+			cacheMissing
+		);
+
+		state = next;
+
+		refresh(handles, changes, next);
+		refresh(subscriptions, changes, next);
+	}
+
+	private void refresh(
+		Set<? extends AbstractConfigHandle<?>> handles,
+		ConfigChanges changes,
+		State state
+	)
+	{
+		List<AbstractConfigHandle<?>> current;
+		synchronized(handles)
+		{
+			current = Lists.mutable.withAll(handles);
+		}
+
+		for(AbstractConfigHandle<?> handle : current)
+		{
+			if(! changes.intersects(handle.getPath()))
+			{
+				continue;
+			}
+
+			try
+			{
+				handle.refresh(state);
+			}
+			catch(ConfigException e)
+			{
+				LOGGER.log(System.Logger.Level.WARNING, "Unable to refresh `" + handle.getPath() + "`, keeping previous value", e);
+			}
+			catch(RuntimeException e)
+			{
+				LOGGER.log(System.Logger.Level.WARNING, "Listener for `" + handle.getPath() + "` failed", e);
+			}
+		}
 	}
 
 	@Override
 	public <T> Optional<T> get(String path, Class<T> type)
 	{
-		Serializer<T> serializer = collection.get(type);
-		return get(path, serializer);
+		ObjectBinder.Plan<T> plan = binder.find(type);
+		Serializer<T> serializer = plan == null ? collection.get(type) : plan.getSerializer();
+		return get(state, path, plan, serializer);
 	}
 
 	@Override
 	public <T> Optional<T> get(String path, Serializer<T> serializer)
+	{
+		return get(state, path, null, serializer);
+	}
+
+	/**
+	 * Get the object at the given path. Objects are bound directly from the
+	 * source if a plan is available, otherwise they are read via the
+	 * serializer.
+	 *
+	 * @param state
+	 * @param path
+	 * @param plan
+	 *   plan for binding the object, or {@code null} to use the serializer
+	 * @param serializer
+	 * @return
+	 */
+	private <T> Optional<T> get(State state, String path, ObjectBinder.Plan<T> plan, Serializer<T> serializer)
 	{
 		Objects.requireNonNull(path);
 		Objects.requireNonNull(serializer);
 
-		StreamingInput input = MapInput.resolveInput(source, path);
-		if(input instanceof NullInput)
+		if(state.isMissing(path))
 		{
 			return Optional.empty();
 		}
 
+		BindCache cache = state.cache;
+		if(cache == null)
+		{
+			return bind(state, path, plan, serializer);
+		}
+
+		Optional<T> cached = cache.get(path, serializer);
+		if(cached != null)
+		{
+			return cached;
+		}
+
+		Optional<T> result = bind(state, path, plan, serializer);
+		if(result.isPresent())
+		{
+			cache.put(path, serializer, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Read and validate the object at the given path. Paths where nothing is
+	 * available are remembered in the state.
+	 *
+	 * @param state
+	 * @param path
+	 * @param plan
+	 * @param serializer
+	 * @return
+	 */
+	private <T> Optional<T> bind(State state, String path, ObjectBinder.Plan<T> plan, Serializer<T> serializer)
+	{
 		try
 		{
-			T instance = serializer.read(input);
+			T instance;
+			if(plan != null)
+			{
+				instance = plan.read(state.source, path, state.values);
+				if(instance == null)
+				{
+					state.markMissing(path);
+					return Optional.empty();
+				}
+			}
+			else
+			{
+				StreamingInput input = MapInput.resolveInput(state.source, path, state.values);
+				if(input instanceof NullInput)
+				{
+					state.markMissing(path);
+					return Optional.empty();
+				}
+
+				instance = serializer.read(input);
+			}
 
 			validateInstance(path, instance);
 
@@ -95,6 +299,476 @@ public class DefaultConfig
 		return get("", serializer);
 	}
 
+	@Override
+	public OptionalInt getInt(String path)
+	{
+		return getInt(state, path);
+	}
+
+	private OptionalInt getInt(State state, String path)
+	{
+		Object value = getValue(state, path);
+		if(value == null)
+		{
+			return OptionalInt.empty();
+		}
+
+		try
+		{
+			return OptionalInt.of(state.values.toInt(value));
+		}
+		catch(NumberFormatException e)
+		{
+			throw conversionFailed(path, e);
+		}
+	}
+
+	@Override
+	public int getInt(String path, int defaultValue)
+	{
+		State state = this.state;
+		Object value = getValue(state, path);
+		if(value == null)
+		{
+			return defaultValue;
+		}
+
+		try
+		{
+			return state.values.toInt(value);
+		}
+		catch(NumberFormatException e)
+		{
+			throw conversionFailed(path, e);
+		}
+	}
+
+	@Override
+	public OptionalLong getLong(String path)
+	{
+		return getLong(state, path);
+	}
+
+	private OptionalLong getLong(State state, String path)
+	{
+		Object value = getValue(state, path);
+		if(value == null)
+		{
+			return OptionalLong.empty();
+		}
+
+		try
+		{
+			return OptionalLong.of(state.values.toLong(value));
+		}
+		catch(NumberFormatException e)
+		{
+			throw conversionFailed(path, e);
+		}
+	}
+
+	@Override
+	public long getLong(String path, long defaultValue)
+	{
+		State state = this.state;
+		Object value = getValue(state, path);
+		if(value == null)
+		{
+			return defaultValue;
+		}
+
+		try
+		{
+			return state.values.toLong(value);
+		}
+		catch(NumberFormatException e)
+		{
+			throw conversionFailed(path, e);
+		}
+	}
+
+	@Override
+	public OptionalDouble getDouble(String path)
+	{
+		return getDouble(state, path);
+	}
+
+	private OptionalDouble getDouble(State state, String path)
+	{
+		Object value = getValue(state, path);
+		if(value == null)
+		{
+			return OptionalDouble.empty();
+		}
+
+		try
+		{
+			return OptionalDouble.of(state.values.toDouble(value));
+		}
+		catch(NumberFormatException e)
+		{
+			throw conversionFailed(path, e);
+		}
+	}
+
+	@Override
+	public double getDouble(String path, double defaultValue)
+	{
+		State state = this.state;
+		Object value = getValue(state, path);
+		if(value == null)
+		{
+			return defaultValue;
+		}
+
+		try
+		{
+			return state.values.toDouble(value);
+		}
+		catch(NumberFormatException e)
+		{
+			throw conversionFailed(path, e);
+		}
+	}
+
+	@Override
+	public Optional<Boolean> getBoolean(String path)
+	{
+		return getBoolean(state, path);
+	}
+
+	private Optional<Boolean> getBoolean(State state, String path)
+	{
+		Object value = getValue(state, path);
+		if(value == null)
+		{
+			return Optional.empty();
+		}
+
+		return ValueInput.toBoolean(value) ? TRUE : FALSE;
+	}
+
+	@Override
+	public boolean getBoolean(String path, boolean defaultValue)
+	{
+		Object value = getValue(state, path);
+		if(value == null)
+		{
+			return defaultValue;
+		}
+
+		return ValueInput.toBoolean(value);
+	}
+
+	/**
+	 * Get the value stored at the given path. Paths where nothing is
+	 * available are remembered in the state.
+	 *
+	 * @param state
+	 * @param path
+	 * @return
+	 */
+	private Object getValue(State state, String path)
+	{
+		Objects.requireNonNull(path);
+
+		if(state.isMissing(path))
+		{
+			return null;
+		}
+
+		Object value = state.source.getValue(path);
+		if(value == null && state.source.getKeys(path).isEmpty())
+		{
+			state.markMissing(path);
+		}
+
+		return value;
+	}
+
+	@Override
+	public Optional<int[]> getIntArray(String path)
+	{
+		State state = this.state;
+		ConfigSource source = state.source;
+
+		LongList longs = source.getLongList(path);
+		if(longs != null)
+		{
+			int[] result = new int[longs.size()];
+			for(int i=0; i<result.length; i++)
+			{
+				result[i] = (int) longs.get(i);
+			}
+			return Optional.of(result);
+		}
+
+		DoubleList doubles = source.getDoubleList(path);
+		if(doubles != null)
+		{
+			int[] result = new int[doubles.size()];
+			for(int i=0; i<result.length; i++)
+			{
+				result[i] = (int) doubles.get(i);
+			}
+			return Optional.of(result);
+		}
+
+		IntList indexes = getIndexes(state, path);
+		if(indexes.isEmpty())
+		{
+			return Optional.empty();
+		}
+
+		try
+		{
+			int[] result = new int[indexes.size()];
+			for(int i=0; i<result.length; i++)
+			{
+				result[i] = state.values.toInt(getItem(source, path, indexes.get(i)));
+			}
+			return Optional.of(result);
+		}
+		catch(NumberFormatException e)
+		{
+			throw conversionFailed(path, e);
+		}
+	}
+
+	@Override
+	public Optional<long[]> getLongArray(String path)
+	{
+		State state = this.state;
+		ConfigSource source = state.source;
+
+		LongList longs = source.getLongList(path);
+		if(longs != null)
+		{
+			return Optional.of(longs.toArray());
+		}
+
+		DoubleList doubles = source.getDoubleList(path);
+		if(doubles != null)
+		{
+			long[] result = new long[doubles.size()];
+			for(int i=0; i<result.length; i++)
+			{
+				result[i] = (long) doubles.get(i);
+			}
+			return Optional.of(result);
+		}
+
+		IntList indexes = getIndexes(state, path);
+		if(indexes.isEmpty())
+		{
+			return Optional.empty();
+		}
+
+		try
+		{
+			long[] result = new long[indexes.size()];
+			for(int i=0; i<result.length; i++)
+			{
+				result[i] = state.values.toLong(getItem(source, path, indexes.get(i)));
+			}
+			return Optional.of(result);
+		}
+		catch(NumberFormatException e)
+		{
+			throw conversionFailed(path, e);
+		}
+	}
+
+	@Override
+	public Optional<double[]> getDoubleArray(String path)
+	{
+		State state = this.state;
+		ConfigSource source = state.source;
+
+		DoubleList doubles = source.getDoubleList(path);
+		if(doubles != null)
+		{
+			return Optional.of(doubles.toArray());
+		}
+
+		LongList longs = source.getLongList(path);
+		if(longs != null)
+		{
+			double[] result = new double[longs.size()];
+			for(int i=0; i<result.length; i++)
+			{
+				result[i] = longs.get(i);
+			}
+			return Optional.of(result);
+		}
+
+		IntList indexes = getIndexes(state, path);
+		if(indexes.isEmpty())
+		{
+			return Optional.empty();
+		}
+
+		try
+		{
+			double[] result = new double[indexes.size()];
+			for(int i=0; i<result.length; i++)
+			{
+				result[i] = state.values.toDouble(getItem(source, path, indexes.get(i)));
+			}
+			return Optional.of(result);
+		}
+		catch(NumberFormatException e)
+		{
+			throw conversionFailed(path, e);
+		}
+	}
+
+	/**
+	 * Get the indexes of the list at the given path, used when the source
+	 * does not store the list as primitives.
+	 *
+	 * @param state
+	 * @param path
+	 * @return
+	 */
+	private IntList getIndexes(State state, String path)
+	{
+		Objects.requireNonNull(path);
+
+		if(state.isMissing(path))
+		{
+			return IntLists.immutable.empty();
+		}
+
+		IntList indexes = state.source.getIndexes(path);
+		if(indexes.isEmpty() && state.source.getValue(path) == null && state.source.getKeys(path).isEmpty())
+		{
+			state.markMissing(path);
+		}
+
+		return indexes;
+	}
+
+	/**
+	 * Get a single item of a list that is read into an array.
+	 *
+	 * @param source
+	 * @param path
+	 * @param index
+	 * @return
+	 */
+	private Object getItem(ConfigSource source, String path, int index)
+	{
+		Object value = source.getValue(path + ConfigKeys.PATH_DELIMITER + index);
+		if(value == null)
+		{
+			throw new ConfigException("Unable to get config data at `" + path + "`; Item " + index + " is not a number");
+		}
+
+		return value;
+	}
+
+	private ConfigException conversionFailed(String path, NumberFormatException e)
+	{
+		return new ConfigException("Unable to get config data at `" + path + "`; " + e.getMessage(), e);
+	}
+
+	@Override
+	public <T> ConfigHandle<T> handle(String path, Class<T> type)
+	{
+		ObjectBinder.Plan<T> plan = binder.find(type);
+		Serializer<T> serializer = plan == null ? collection.get(type) : plan.getSerializer();
+		return handle(path, plan, serializer);
+	}
+
+	@Override
+	public <T> ConfigHandle<T> handle(String path, Serializer<T> serializer)
+	{
+		return handle(path, null, serializer);
+	}
+
+	private <T> ConfigHandle<T> handle(String path, ObjectBinder.Plan<T> plan, Serializer<T> serializer)
+	{
+		Objects.requireNonNull(serializer);
+
+		return register(new DefaultConfigHandle<>(path, s -> get(s, path, plan, serializer)));
+	}
+
+	@Override
+	public ConfigHandle.OfInt intHandle(String path)
+	{
+		return register(new DefaultConfigHandle.OfInt(path, s -> getInt(s, path)));
+	}
+
+	@Override
+	public ConfigHandle.OfLong longHandle(String path)
+	{
+		return register(new DefaultConfigHandle.OfLong(path, s -> getLong(s, path)));
+	}
+
+	@Override
+	public ConfigHandle.OfDouble doubleHandle(String path)
+	{
+		return register(new DefaultConfigHandle.OfDouble(path, s -> getDouble(s, path)));
+	}
+
+	@Override
+	public ConfigHandle.OfBoolean booleanHandle(String path)
+	{
+		return register(new DefaultConfigHandle.OfBoolean(path, s -> getBoolean(s, path)));
+	}
+
+	@Override
+	public <T> ConfigSubscription subscribe(String path, Class<T> type, Consumer<Optional<T>> listener)
+	{
+		ObjectBinder.Plan<T> plan = binder.find(type);
+		Serializer<T> serializer = plan == null ? collection.get(type) : plan.getSerializer();
+		return subscribe(path, plan, serializer, listener);
+	}
+
+	@Override
+	public <T> ConfigSubscription subscribe(String path, Serializer<T> serializer, Consumer<Optional<T>> listener)
+	{
+		return subscribe(path, null, serializer, listener);
+	}
+
+	private <T> ConfigSubscription subscribe(
+		String path,
+		ObjectBinder.Plan<T> plan,
+		Serializer<T> serializer,
+		Consumer<Optional<T>> listener
+	)
+	{
+		Objects.requireNonNull(serializer);
+		Objects.requireNonNull(listener);
+
+		DefaultConfigSubscription<T> subscription = new DefaultConfigSubscription<>(
+			path,
+			s -> get(s, path, plan, serializer),
+			listener,
+			subscriptions::remove
+		);
+
+		subscriptions.add(subscription);
+		subscription.refresh(state);
+		return subscription;
+	}
+
+	/**
+	 * Register a handle so that it is refreshed when the source is updated
+	 * and resolve its initial value. Handles are registered before they are
+	 * resolved so that an update happening at the same time is not missed.
+	 *
+	 * @param handle
+	 * @return
+	 */
+	private <H extends AbstractConfigHandle<?>> H register(H handle)
+	{
+		handles.add(handle);
+		handle.refresh(state);
+		return handle;
+	}
+
 	@Override
 	public Config scope(String path)
 	{
@@ -148,4 +822,66 @@ public class DefaultConfig
 
 		return builder.toString();
 	}
+
+	/**
+	 * The source in use together with the caches that are valid for it.
+	 */
+	static class State
+	{
+		/**
+		 * The maximum number of missing paths to remember, protects against
+		 * unbounded growth if paths are built dynamically.
+		 */
+		private static final int MAX_MISSING = 4096;
+
+		/**
+		 * The maximum total size of decoded Base64 values to remember.
+		 */
+		private static final long MAX_BYTES = 4 * 1024 * 1024;
+
+		final long generation;
+		final ConfigSource source;
+		final BindCache cache;
+		final ValueCache values;
+
+		/**
+		 * Paths that are known to be missing, {@code null} if the source may
+		 * change without the state being replaced.
+		 */
+		private final Set<String> missing;
+
+		State(long generation, ConfigSource source, BindCache cache, boolean cacheMissing)
+		{
+			this.generation = generation;
+			this.source = source;
+			this.cache = cache;
+
+			values = new ValueCache(MAX_BYTES);
+			missing = cacheMissing ? ConcurrentHashMap.newKeySet() : null;
+		}
+
+		/**
+		 * Get if a previous read found nothing at the given path.
+		 *
+		 * @param path
+		 * @return
+		 */
+		boolean isMissing(String path)
+		{
+			return missing != null && missing.contains(path);
+		}
+
+		/**
+		 * Remember that there is no value or object at the given path.
+		 *
+		 * @param path
+		 */
+		void markMissing(String path)
+		{
+			if(missing != null && missing.size() < MAX_MISSING)
+			{
+				missing.add(path);
+			}
+		}
+	}
 }
@@ -0,0 +1,139 @@
+package se.l4.exoconf.internal;
+
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.function.Function;
+
+import se.l4.exoconf.ConfigHandle;
+
+/**
+ * Default implementation of {@link ConfigHandle}.
+ */
+public class DefaultConfigHandle<T>
+	extends AbstractConfigHandle<Optional<T>>
+	implements ConfigHandle<T>
+{
+	public DefaultConfigHandle(String path, Function<DefaultConfig.State, Optional<T>> resolver)
+	{
+		super(path, resolver);
+	}
+
+	@Override
+	public Optional<T> get()
+	{
+		return value;
+	}
+
+	@Override
+	public T getOrDefault(T defaultValue)
+	{
+		Optional<T> current = value;
+		return current.isPresent() ? current.get() : defaultValue;
+	}
+
+	/**
+	 * Implementation of {@link ConfigHandle.OfInt}.
+	 */
+	public static class OfInt
+		extends AbstractConfigHandle<OptionalInt>
+		implements ConfigHandle.OfInt
+	{
+		public OfInt(String path, Function<DefaultConfig.State, OptionalInt> resolver)
+		{
+			super(path, resolver);
+		}
+
+		@Override
+		public OptionalInt get()
+		{
+			return value;
+		}
+
+		@Override
+		public int getOrDefault(int defaultValue)
+		{
+			OptionalInt current = value;
+			return current.isPresent() ? current.getAsInt() : defaultValue;
+		}
+	}
+
+	/**
+	 * Implementation of {@link ConfigHandle.OfLong}.
+	 */
+	public static class OfLong
+		extends AbstractConfigHandle<OptionalLong>
+		implements ConfigHandle.OfLong
+	{
+		public OfLong(String path, Function<DefaultConfig.State, OptionalLong> resolver)
+		{
+			super(path, resolver);
+		}
+
+		@Override
+		public OptionalLong get()
+		{
+			return value;
+		}
+
+		@Override
+		public long getOrDefault(long defaultValue)
+		{
+			OptionalLong current = value;
+			return current.isPresent() ? current.getAsLong() : defaultValue;
+		}
+	}
+
+	/**
+	 * Implementation of {@link ConfigHandle.OfDouble}.
+	 */
+	public static class OfDouble
+		extends AbstractConfigHandle<OptionalDouble>
+		implements ConfigHandle.OfDouble
+	{
+		public OfDouble(String path, Function<DefaultConfig.State, OptionalDouble> resolver)
+		{
+			super(path, resolver);
+		}
+
+		@Override
+		public OptionalDouble get()
+		{
+			return value;
+		}
+
+		@Override
+		public double getOrDefault(double defaultValue)
+		{
+			OptionalDouble current = value;
+			return current.isPresent() ? current.getAsDouble() : defaultValue;
+		}
+	}
+
+	/**
+	 * Implementation of {@link ConfigHandle.OfBoolean}.
+	 */
+	public static class OfBoolean
+		extends AbstractConfigHandle<Optional<Boolean>>
+		implements ConfigHandle.OfBoolean
+	{
+		public OfBoolean(String path, Function<DefaultConfig.State, Optional<Boolean>> resolver)
+		{
+			super(path, resolver);
+		}
+
+		@Override
+		public Optional<Boolean> get()
+		{
+			return value;
+		}
+
+		@Override
+		public boolean getOrDefault(boolean defaultValue)
+		{
+			Optional<Boolean> current = value;
+			return current.isPresent() ? current.get() : defaultValue;
+		}
+	}
+}
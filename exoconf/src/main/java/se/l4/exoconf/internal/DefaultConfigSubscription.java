@@ -0,0 +1,53 @@
+package se.l4.exoconf.internal;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import se.l4.exoconf.ConfigSubscription;
+
+/**
+ * Default implementation of {@link ConfigSubscription}. The listener is
+ * called when a refresh resolves a value that is not equal to the previous
+ * one.
+ */
+public class DefaultConfigSubscription<T>
+	extends AbstractConfigHandle<Optional<T>>
+	implements ConfigSubscription
+{
+	private final Consumer<Optional<T>> listener;
+	private final Consumer<DefaultConfigSubscription<?>> remover;
+
+	public DefaultConfigSubscription(
+		String path,
+		Function<DefaultConfig.State, Optional<T>> resolver,
+		Consumer<Optional<T>> listener,
+		Consumer<DefaultConfigSubscription<?>> remover
+	)
+	{
+		super(path, resolver);
+
+		this.listener = listener;
+		this.remover = remover;
+	}
+
+	@Override
+	synchronized void refresh(DefaultConfig.State state)
+	{
+		Optional<T> previous = value;
+
+		super.refresh(state);
+
+		Optional<T> current = value;
+		if(previous != null && ! previous.equals(current))
+		{
+			listener.accept(current);
+		}
+	}
+
+	@Override
+	public void unsubscribe()
+	{
+		remover.accept(this);
+	}
+}
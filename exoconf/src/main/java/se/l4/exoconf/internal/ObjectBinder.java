@@ -0,0 +1,515 @@
+package se.l4.exoconf.internal;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import org.eclipse.collections.api.RichIterable;
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.iterator.IntIterator;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.list.primitive.IntList;
+
+import se.l4.exobytes.AnnotationSerialization;
+import se.l4.exobytes.Expose;
+import se.l4.exobytes.SerializationException;
+import se.l4.exobytes.Serializer;
+import se.l4.exobytes.Serializers;
+import se.l4.exobytes.collections.CollectionResolver;
+import se.l4.exobytes.standard.BooleanSerializer;
+import se.l4.exobytes.standard.DoubleSerializer;
+import se.l4.exobytes.standard.IntSerializer;
+import se.l4.exobytes.standard.LongSerializer;
+import se.l4.exobytes.standard.StringSerializer;
+import se.l4.exobytes.streaming.StreamingInput;
+import se.l4.exoconf.ConfigKey;
+import se.l4.exoconf.internal.streaming.ListInput;
+import se.l4.exoconf.internal.streaming.MapInput;
+import se.l4.exoconf.internal.streaming.NullInput;
+import se.l4.exoconf.internal.streaming.ValueCache;
+import se.l4.exoconf.internal.streaming.ValueInput;
+import se.l4.exoconf.sources.ConfigKeys;
+import se.l4.exoconf.sources.ConfigSource;
+import se.l4.ylem.types.reflect.FieldRef;
+import se.l4.ylem.types.reflect.TypeRef;
+import se.l4.ylem.types.reflect.Types;
+
+/**
+ * Binder that reads objects directly from a {@link ConfigSource} instead of
+ * streaming them via {@link MapInput} and {@link ListInput}.
+ *
+ * <p>
+ * A plan is built once per type and reads every exposed field with a single
+ * lookup in the source. Plans are only built for types that use the default
+ * serialization of {@link AnnotationSerialization}, fields that use any other
+ * serializer are read via streaming. Data that does not have the shape a
+ * field expects is also streamed, so errors are reported the same way for
+ * both paths.
+ */
+public class ObjectBinder
+{
+	/**
+	 * Marker returned by readers when nothing is available at a path.
+	 */
+	private static final Object MISSING = new Object();
+
+	/**
+	 * Serializer used by exobytes for {@link AnnotationSerialization} types
+	 * that are created via a constructor without arguments. Not exported so
+	 * matched on name, types are streamed if it changes.
+	 */
+	private static final String REFLECTION_SERIALIZER = "se.l4.exobytes.internal.reflection.ReflectionStreamingSerializer";
+
+	private final Serializers serializers;
+	private final Map<Class<?>, Optional<Plan<?>>> plans;
+
+	public ObjectBinder(Serializers serializers)
+	{
+		this.serializers = serializers;
+
+		plans = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Get the plan used to bind the given type. Plans are cached, so this
+	 * also avoids resolving the serializer on every read.
+	 *
+	 * @param type
+	 * @return
+	 *   plan or {@code null} if the type should be read via its serializer
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Plan<T> find(Class<T> type)
+	{
+		Optional<Plan<?>> plan = plans.get(type);
+		if(plan != null)
+		{
+			return (Plan<T>) plan.orElse(null);
+		}
+
+		synchronized(plans)
+		{
+			return (Plan<T>) resolve(type, Sets.mutable.empty());
+		}
+	}
+
+	private Plan<?> resolve(Class<?> type, Set<Class<?>> resolving)
+	{
+		Optional<Plan<?>> existing = plans.get(type);
+		if(existing != null)
+		{
+			return existing.orElse(null);
+		}
+
+		if(! resolving.add(type))
+		{
+			// Type refers to itself, stream the inner references
+			return null;
+		}
+
+		Plan<?> plan;
+		try
+		{
+			plan = create(type, serializers.get(type), resolving);
+		}
+		catch(RuntimeException e)
+		{
+			plan = null;
+		}
+
+		resolving.remove(type);
+		plans.put(type, Optional.ofNullable(plan));
+		return plan;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> Plan<T> create(Class<T> type, Serializer<?> serializer, Set<Class<?>> resolving)
+	{
+		if(! REFLECTION_SERIALIZER.equals(serializer.getClass().getName())
+			|| Modifier.isAbstract(type.getModifiers()))
+		{
+			return null;
+		}
+
+		Constructor<T> constructor;
+		try
+		{
+			constructor = type.getDeclaredConstructor();
+		}
+		catch(NoSuchMethodException e)
+		{
+			return null;
+		}
+
+		if(! constructor.trySetAccessible())
+		{
+			return null;
+		}
+
+		MutableList<Property> properties = Lists.mutable.empty();
+		for(FieldRef fieldRef : Types.reference(type).getDeclaredFields())
+		{
+			Optional<Expose> expose = fieldRef.getAnnotation(Expose.class);
+			if(! expose.isPresent())
+			{
+				continue;
+			}
+
+			Field field = fieldRef.getField();
+			if(fieldRef.isStatic() || ! field.trySetAccessible())
+			{
+				return null;
+			}
+
+			String name = expose.get().value().isEmpty() ? field.getName() : expose.get().value();
+			Serializer<?> fieldSerializer = serializers.get(fieldRef.getType());
+
+			Reader reader;
+			if(ConfigKey.NAME.equals(name))
+			{
+				reader = new KeyReader(fieldSerializer);
+			}
+			else if(ConfigKeys.isValidPart(name))
+			{
+				reader = createReader(fieldRef.getType(), fieldSerializer, resolving);
+			}
+			else
+			{
+				return null;
+			}
+
+			properties.add(new Property(name, field, reader));
+		}
+
+		return new Plan<>(constructor, (Serializer<T>) serializer, properties.toArray(new Property[properties.size()]));
+	}
+
+	private Reader createReader(TypeRef type, Serializer<?> serializer, Set<Class<?>> resolving)
+	{
+		if(serializer instanceof StringSerializer)
+		{
+			return new ScalarReader(serializer, (values, value) -> String.valueOf(value));
+		}
+		else if(serializer instanceof IntSerializer)
+		{
+			return new ScalarReader(serializer, ValueCache::toInt);
+		}
+		else if(serializer instanceof LongSerializer)
+		{
+			return new ScalarReader(serializer, ValueCache::toLong);
+		}
+		else if(serializer instanceof DoubleSerializer)
+		{
+			return new ScalarReader(serializer, ValueCache::toDouble);
+		}
+		else if(serializer instanceof BooleanSerializer)
+		{
+			return new ScalarReader(serializer, (values, value) -> ValueInput.toBoolean(value));
+		}
+
+		Class<?> erased = type.getErasedType();
+		if(erased == List.class && serializer.getClass().getEnclosingClass() == CollectionResolver.class)
+		{
+			Optional<TypeRef> elementType = type.getTypeParameter(0);
+			if(elementType.isPresent())
+			{
+				Serializer<?> elementSerializer = serializers.get(elementType.get());
+				return new ListReader(serializer, createReader(elementType.get(), elementSerializer, resolving));
+			}
+		}
+		else if(REFLECTION_SERIALIZER.equals(serializer.getClass().getName()))
+		{
+			Plan<?> plan = resolve(erased, resolving);
+			if(plan != null)
+			{
+				return plan.reader;
+			}
+		}
+
+		return new StreamingReader(serializer);
+	}
+
+	/**
+	 * Plan for binding a single type.
+	 */
+	public static class Plan<T>
+	{
+		private final Constructor<T> constructor;
+		private final Serializer<T> serializer;
+		private final Property[] properties;
+		private final ObjectReader reader;
+
+		private Plan(Constructor<T> constructor, Serializer<T> serializer, Property[] properties)
+		{
+			this.constructor = constructor;
+			this.serializer = serializer;
+			this.properties = properties;
+
+			reader = new ObjectReader(serializer, this);
+		}
+
+		/**
+		 * Get the serializer of the type, used when data is not bound via
+		 * this plan.
+		 *
+		 * @return
+		 */
+		public Serializer<T> getSerializer()
+		{
+			return serializer;
+		}
+
+		/**
+		 * Read the object at the given path.
+		 *
+		 * @param source
+		 * @param path
+		 * @param values
+		 *   cache used when converting values
+		 * @return
+		 *   the object or {@code null} if nothing is available at the path
+		 * @throws IOException
+		 */
+		@SuppressWarnings("unchecked")
+		public T read(ConfigSource source, String path, ValueCache values)
+			throws IOException
+		{
+			Object result = reader.read(source, path, values);
+			return result == MISSING ? null : (T) result;
+		}
+
+		private T create(ConfigSource source, String path, ValueCache values)
+			throws IOException
+		{
+			T instance;
+			try
+			{
+				instance = constructor.newInstance();
+			}
+			catch(ReflectiveOperationException e)
+			{
+				throw new SerializationException("Unable to create " + constructor.getDeclaringClass().getName() + "; " + e.getMessage(), e);
+			}
+
+			for(Property property : properties)
+			{
+				String childPath = path.isEmpty() ? property.name : path + ConfigKeys.PATH_DELIMITER + property.name;
+				Object value = property.reader instanceof KeyReader
+					? property.reader.read(source, path, values)
+					: property.reader.read(source, childPath, values);
+
+				if(value == MISSING)
+				{
+					continue;
+				}
+
+				try
+				{
+					property.field.set(instance, value);
+				}
+				catch(ReflectiveOperationException | IllegalArgumentException e)
+				{
+					throw new SerializationException("Unable to set field " + property.field.getName() + "; " + e.getMessage(), e);
+				}
+			}
+
+			return instance;
+		}
+	}
+
+	private static class Property
+	{
+		private final String name;
+		private final Field field;
+		private final Reader reader;
+
+		public Property(String name, Field field, Reader reader)
+		{
+			this.name = name;
+			this.field = field;
+			this.reader = reader;
+		}
+	}
+
+	/**
+	 * Reader of the value at a path. Each reader keeps the serializer of its
+	 * type to stream values that do not have the expected shape.
+	 */
+	private abstract static class Reader
+	{
+		protected final Serializer<?> serializer;
+
+		public Reader(Serializer<?> serializer)
+		{
+			this.serializer = serializer;
+		}
+
+		/**
+		 * Read the value at the given path.
+		 *
+		 * @return
+		 *   value or {@link ObjectBinder#MISSING} if nothing is available
+		 */
+		public abstract Object read(ConfigSource source, String path, ValueCache values)
+			throws IOException;
+
+		protected Object stream(ConfigSource source, String path, ValueCache values)
+			throws IOException
+		{
+			StreamingInput input = MapInput.resolveInput(source, path, values);
+			if(input instanceof NullInput)
+			{
+				return MISSING;
+			}
+
+			return serializer.read(input);
+		}
+	}
+
+	private static class StreamingReader
+		extends Reader
+	{
+		public StreamingReader(Serializer<?> serializer)
+		{
+			super(serializer);
+		}
+
+		@Override
+		public Object read(ConfigSource source, String path, ValueCache values)
+			throws IOException
+		{
+			return stream(source, path, values);
+		}
+	}
+
+	private static class KeyReader
+		extends Reader
+	{
+		public KeyReader(Serializer<?> serializer)
+		{
+			super(serializer);
+		}
+
+		@Override
+		public Object read(ConfigSource source, String path, ValueCache values)
+			throws IOException
+		{
+			return serializer.read(new ValueInput(path, path, values));
+		}
+	}
+
+	private static class ScalarReader
+		extends Reader
+	{
+		private final BiFunction<ValueCache, Object, Object> converter;
+
+		public ScalarReader(Serializer<?> serializer, BiFunction<ValueCache, Object, Object> converter)
+		{
+			super(serializer);
+
+			this.converter = converter;
+		}
+
+		@Override
+		public Object read(ConfigSource source, String path, ValueCache values)
+			throws IOException
+		{
+			Object value = source.getValue(path);
+			if(value == null)
+			{
+				return source.getKeys(path).isEmpty() ? MISSING : stream(source, path, values);
+			}
+
+			return converter.apply(values, value);
+		}
+	}
+
+	private static class ObjectReader
+		extends Reader
+	{
+		private final Plan<?> plan;
+
+		public ObjectReader(Serializer<?> serializer, Plan<?> plan)
+		{
+			super(serializer);
+
+			this.plan = plan;
+		}
+
+		@Override
+		public Object read(ConfigSource source, String path, ValueCache values)
+			throws IOException
+		{
+			if(source.getValue(path) != null)
+			{
+				return stream(source, path, values);
+			}
+
+			RichIterable<String> keys = source.getKeys(path);
+			if(keys.isEmpty())
+			{
+				return MISSING;
+			}
+			else if(! source.getIndexes(path).isEmpty())
+			{
+				return stream(source, path, values);
+			}
+
+			return plan.create(source, path, values);
+		}
+	}
+
+	private static class ListReader
+		extends Reader
+	{
+		private final Reader elementReader;
+
+		public ListReader(Serializer<?> serializer, Reader elementReader)
+		{
+			super(serializer);
+
+			this.elementReader = elementReader;
+		}
+
+		@Override
+		public Object read(ConfigSource source, String path, ValueCache values)
+			throws IOException
+		{
+			if(source.getValue(path) != null)
+			{
+				return stream(source, path, values);
+			}
+
+			RichIterable<String> keys = source.getKeys(path);
+			if(keys.isEmpty())
+			{
+				return MISSING;
+			}
+
+			IntList indexes = source.getIndexes(path);
+			if(indexes.isEmpty())
+			{
+				return stream(source, path, values);
+			}
+
+			List<Object> result = new ArrayList<>(indexes.size());
+			IntIterator it = indexes.intIterator();
+			while(it.hasNext())
+			{
+				Object value = elementReader.read(source, path + ConfigKeys.PATH_DELIMITER + it.next(), values);
+				result.add(value == MISSING ? null : value);
+			}
+
+			return result;
+		}
+	}
+}
@@ -1,9 +1,15 @@
 package se.l4.exoconf.internal;
 
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 
 import se.l4.exobytes.Serializer;
 import se.l4.exoconf.Config;
+import se.l4.exoconf.ConfigHandle;
+import se.l4.exoconf.ConfigSubscription;
 
 /**
  * Configuration that scopes all the lookups.
@@ -44,6 +50,126 @@ public class ScopedConfig
 		return other.get(this.path, serializer);
 	}
 
+	@Override
+	public OptionalInt getInt(String path)
+	{
+		return other.getInt(this.path + '.' + path);
+	}
+
+	@Override
+	public int getInt(String path, int defaultValue)
+	{
+		return other.getInt(this.path + '.' + path, defaultValue);
+	}
+
+	@Override
+	public OptionalLong getLong(String path)
+	{
+		return other.getLong(this.path + '.' + path);
+	}
+
+	@Override
+	public long getLong(String path, long defaultValue)
+	{
+		return other.getLong(this.path + '.' + path, defaultValue);
+	}
+
+	@Override
+	public OptionalDouble getDouble(String path)
+	{
+		return other.getDouble(this.path + '.' + path);
+	}
+
+	@Override
+	public double getDouble(String path, double defaultValue)
+	{
+		return other.getDouble(this.path + '.' + path, defaultValue);
+	}
+
+	@Override
+	public Optional<Boolean> getBoolean(String path)
+	{
+		return other.getBoolean(this.path + '.' + path);
+	}
+
+	@Override
+	public boolean getBoolean(String path, boolean defaultValue)
+	{
+		return other.getBoolean(this.path + '.' + path, defaultValue);
+	}
+
+	@Override
+	public Optional<int[]> getIntArray(String path)
+	{
+		return other.getIntArray(this.path + '.' + path);
+	}
+
+	@Override
+	public Optional<long[]> getLongArray(String path)
+	{
+		return other.getLongArray(this.path + '.' + path);
+	}
+
+	@Override
+	public Optional<double[]> getDoubleArray(String path)
+	{
+		return other.getDoubleArray(this.path + '.' + path);
+	}
+
+	@Override
+	public <T> ConfigHandle<T> handle(String path, Class<T> type)
+	{
+		return other.handle(this.path + '.' + path, type);
+	}
+
+	@Override
+	public <T> ConfigHandle<T> handle(String path, Serializer<T> serializer)
+	{
+		return other.handle(this.path + '.' + path, serializer);
+	}
+
+	@Override
+	public ConfigHandle.OfInt intHandle(String path)
+	{
+		return other.intHandle(this.path + '.' + path);
+	}
+
+	@Override
+	public ConfigHandle.OfLong longHandle(String path)
+	{
+		return other.longHandle(this.path + '.' + path);
+	}
+
+	@Override
+	public ConfigHandle.OfDouble doubleHandle(String path)
+	{
+		return other.doubleHandle(this.path + '.' + path);
+	}
+
+	@Override
+	public ConfigHandle.OfBoolean booleanHandle(String path)
+	{
+		return other.booleanHandle(this.path + '.' + path);
+	}
+
+	@Override
+	public <T> ConfigSubscription subscribe(String path, Class<T> type, Consumer<Optional<T>> listener)
+	{
+		return other.subscribe(this.path + '.' + path, type, listener);
+	}
+
+	@Override
+	public <T> ConfigSubscription subscribe(String path, Serializer<T> serializer, Consumer<Optional<T>> listener)
+	{
+		return other.subscribe(this.path + '.' + path, serializer, listener);
+	}
+
+	@Override
+	public void close()
+	{
+		other.close();
+	}
+
 	@Override
 	public Config scope(String path)
 	{
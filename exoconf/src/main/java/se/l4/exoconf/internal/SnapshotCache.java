@@ -0,0 +1,125 @@
+package se.l4.exoconf.internal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32C;
+
+import se.l4.exoconf.sources.ConfigSource;
+import se.l4.exoconf.sources.FileConfigSource;
+import se.l4.exoconf.sources.SnapshotConfigSource;
+
+/**
+ * Cache of binary snapshots of config files. When a file is read its
+ * snapshot is used if the size, modification time and checksum of the file
+ * match the ones recorded in the snapshot. Otherwise the file is parsed and
+ * a new snapshot is written for the next time it is read.
+ */
+public class SnapshotCache
+{
+	private static final System.Logger LOGGER = System.getLogger(SnapshotCache.class.getName());
+
+	private final Path directory;
+
+	public SnapshotCache(Path directory)
+	{
+		this.directory = directory;
+	}
+
+	/**
+	 * Read a config file, via its snapshot if it is up to date.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public ConfigSource read(Path file)
+		throws IOException
+	{
+		BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		long size = attributes.size();
+		long modified = attributes.lastModifiedTime().toMillis();
+
+		byte[] data = Files.readAllBytes(file);
+		int checksum = checksum(data);
+
+		Path snapshot = directory.resolve(snapshotName(file));
+		if(Files.exists(snapshot))
+		{
+			try
+			{
+				SnapshotConfigSource source = SnapshotConfigSource.open(snapshot);
+				if(source.getSourceSize() == size
+					&& source.getSourceModified() == modified
+					&& source.getSourceChecksum() == checksum)
+				{
+					return source;
+				}
+			}
+			catch(IOException e)
+			{
+				LOGGER.log(System.Logger.Level.DEBUG, "Unable to open snapshot " + snapshot + ", reading " + file, e);
+			}
+		}
+
+		FileConfigSource source = FileConfigSource.read(data);
+
+		try
+		{
+			Files.createDirectories(directory);
+			SnapshotConfigSource.write(snapshot, source.getProperties(), size, modified, checksum);
+		}
+		catch(IOException e)
+		{
+			LOGGER.log(System.Logger.Level.WARNING, "Unable to write snapshot of " + file + " to " + snapshot, e);
+		}
+
+		return source;
+	}
+
+	private static int checksum(byte[] data)
+	{
+		CRC32C crc = new CRC32C();
+		crc.update(data, 0, data.length);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Get the name of the snapshot for a file. The name includes a hash of
+	 * the absolute path so that files with the same name in different
+	 * directories get different snapshots.
+	 *
+	 * @param file
+	 * @return
+	 */
+	private static String snapshotName(Path file)
+	{
+		String path = file.toAbsolutePath().normalize().toString();
+
+		try
+		{
+			byte[] hash = MessageDigest.getInstance("SHA-256")
+				.digest(path.getBytes(StandardCharsets.UTF_8));
+
+			StringBuilder builder = new StringBuilder()
+				.append(file.getFileName())
+				.append('-');
+
+			for(int i=0; i<8; i++)
+			{
+				builder.append(Character.forDigit((hash[i] >> 4) & 0xf, 16))
+					.append(Character.forDigit(hash[i] & 0xf, 16));
+			}
+
+			return builder.append(".snapshot").toString();
+		}
+		catch(NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+}
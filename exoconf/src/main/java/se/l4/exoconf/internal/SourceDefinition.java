@@ -0,0 +1,106 @@
+package se.l4.exoconf.internal;
+
+import java.io.File;
+import java.io.IOException;
+
+import se.l4.exoconf.sources.ConfigSource;
+import se.l4.ylem.io.IOSupplier;
+
+/**
+ * Definition of a source added to a {@link ConfigBuilderImpl}. Sources that
+ * are backed by a file keep track of it so they can be reloaded.
+ */
+public class SourceDefinition
+{
+	private final String name;
+	private final File file;
+	private final IOSupplier<ConfigSource> supplier;
+	private final boolean staticValues;
+
+	private SourceDefinition(String name, File file, IOSupplier<ConfigSource> supplier, boolean staticValues)
+	{
+		this.name = name;
+		this.file = file;
+		this.supplier = supplier;
+		this.staticValues = staticValues;
+	}
+
+	/**
+	 * Get a name describing this source, used when logging.
+	 *
+	 * @return
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Get the file this source is read from.
+	 *
+	 * @return
+	 *   the file or {@code null} if this source is not backed by a file
+	 */
+	public File getFile()
+	{
+		return file;
+	}
+
+	/**
+	 * Get if the loaded source keeps the same values until it is reloaded.
+	 * Sources added by users may change at any time.
+	 *
+	 * @return
+	 */
+	public boolean hasStaticValues()
+	{
+		return staticValues;
+	}
+
+	/**
+	 * Load the source.
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	public ConfigSource load()
+		throws IOException
+	{
+		return supplier.get();
+	}
+
+	/**
+	 * Define a source that is read from a file.
+	 *
+	 * @param file
+	 * @param supplier
+	 * @return
+	 */
+	public static SourceDefinition forFile(File file, IOSupplier<ConfigSource> supplier)
+	{
+		return new SourceDefinition(file.toString(), file, supplier, true);
+	}
+
+	/**
+	 * Define a source that can not be reloaded.
+	 *
+	 * @param name
+	 * @param supplier
+	 * @return
+	 */
+	public static SourceDefinition of(String name, IOSupplier<ConfigSource> supplier)
+	{
+		return new SourceDefinition(name, null, supplier, true);
+	}
+
+	/**
+	 * Define a source supplied by a user, its values may change at any time.
+	 *
+	 * @param source
+	 * @return
+	 */
+	public static SourceDefinition forSource(ConfigSource source)
+	{
+		return new SourceDefinition(source.getClass().getSimpleName(), null, () -> source, false);
+	}
+}
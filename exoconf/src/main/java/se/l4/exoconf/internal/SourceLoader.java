@@ -0,0 +1,180 @@
+package se.l4.exoconf.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.collections.api.RichIterable;
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.map.ImmutableMap;
+
+import se.l4.exoconf.ConfigException;
+import se.l4.exoconf.sources.ConfigSource;
+import se.l4.exoconf.sources.EnvironmentConfigSource;
+import se.l4.exoconf.sources.MapBasedConfigSource;
+import se.l4.exoconf.sources.MergingConfigSource;
+
+/**
+ * Loads the sources of a config and merges them in order of priority. The
+ * loaded sources are kept so that sources backed by files can be reloaded
+ * individually while the others are reused.
+ */
+public class SourceLoader
+{
+	private static final System.Logger LOGGER = System.getLogger(SourceLoader.class.getName());
+
+	private final ImmutableList<SourceDefinition> definitions;
+	private final ConfigSource properties;
+	private final ConfigSource environment;
+	private final boolean flatten;
+	private final Executor executor;
+
+	private ConfigSource[] loaded;
+
+	public SourceLoader(
+		ImmutableMap<String, Object> keys,
+		ImmutableList<SourceDefinition> definitions,
+		boolean flatten,
+		Executor executor
+	)
+	{
+		this.definitions = definitions;
+		this.flatten = flatten;
+		this.executor = executor;
+
+		properties = new MapBasedConfigSource(keys);
+		environment = new EnvironmentConfigSource();
+	}
+
+	/**
+	 * Get the files that sources are read from.
+	 *
+	 * @return
+	 */
+	public ImmutableList<File> getFiles()
+	{
+		return definitions
+			.collectIf(d -> d.getFile() != null, SourceDefinition::getFile)
+			.distinct();
+	}
+
+	/**
+	 * Load all of the sources. If an executor is available the sources are
+	 * loaded concurrently.
+	 *
+	 * @return
+	 *   merged source
+	 */
+	public synchronized ConfigSource load()
+	{
+		ConfigSource[] loaded = new ConfigSource[definitions.size()];
+		if(executor == null || loaded.length < 2)
+		{
+			for(int i=0, n=loaded.length; i<n; i++)
+			{
+				loaded[i] = load(definitions.get(i));
+			}
+		}
+		else
+		{
+			loadConcurrently(loaded);
+		}
+
+		this.loaded = loaded;
+		return merge(loaded);
+	}
+
+	/**
+	 * Load all of the sources using the executor. Results are stored at the
+	 * index of their definition so that the order of priority is kept
+	 * regardless of which source finishes first.
+	 *
+	 * @param loaded
+	 */
+	private void loadConcurrently(ConfigSource[] loaded)
+	{
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[loaded.length];
+		for(int i=0, n=loaded.length; i<n; i++)
+		{
+			int idx = i;
+			SourceDefinition definition = definitions.get(i);
+			futures[i] = CompletableFuture.runAsync(() -> loaded[idx] = load(definition), executor);
+		}
+
+		try
+		{
+			CompletableFuture.allOf(futures).join();
+		}
+		catch(CompletionException e)
+		{
+			if(e.getCause() instanceof ConfigException)
+			{
+				throw (ConfigException) e.getCause();
+			}
+
+			throw new ConfigException("Unable to read configuration; " + e.getCause().getMessage(), e.getCause());
+		}
+	}
+
+	/**
+	 * Reload the sources that are backed by any of the given files. If a
+	 * source fails to load the previously loaded sources are kept.
+	 *
+	 * @param files
+	 * @return
+	 *   merged source
+	 */
+	public synchronized ConfigSource reload(RichIterable<File> files)
+	{
+		ConfigSource[] loaded = this.loaded.clone();
+		for(int i=0, n=loaded.length; i<n; i++)
+		{
+			SourceDefinition definition = definitions.get(i);
+			if(definition.getFile() != null && files.contains(definition.getFile()))
+			{
+				loaded[i] = load(definition);
+			}
+		}
+
+		this.loaded = loaded;
+		return merge(loaded);
+	}
+
+	private ConfigSource load(SourceDefinition definition)
+	{
+		long start = System.nanoTime();
+		try
+		{
+			ConfigSource source = definition.load();
+
+			if(LOGGER.isLoggable(System.Logger.Level.DEBUG))
+			{
+				long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+				LOGGER.log(System.Logger.Level.DEBUG, "Loaded " + definition.getName() + " in " + time + " ms");
+			}
+
+			return source;
+		}
+		catch(IOException e)
+		{
+			throw new ConfigException("Unable to read configuration; " + e.getMessage(), e);
+		}
+	}
+
+	private ConfigSource merge(ConfigSource[] loaded)
+	{
+		MutableList<ConfigSource> sources = Lists.mutable.empty();
+		sources.add(properties);
+		sources.addAll(Arrays.asList(loaded));
+		sources.add(environment);
+
+		MergingConfigSource merged = new MergingConfigSource(sources.toReversed());
+		return flatten ? merged.flatten() : merged;
+	}
+}
@@ -0,0 +1,490 @@
+package se.l4.exoconf.internal.streaming;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.OptionalInt;
+
+import se.l4.exobytes.streaming.AbstractStreamingInput;
+import se.l4.exobytes.streaming.Token;
+
+/**
+ * Base for inputs of the custom JSON-like config format. Keeps track of the
+ * structure being read, subclasses implement reading of characters, keys and
+ * values from their underlying storage.
+ */
+public abstract class AbstractConfigJsonInput
+	extends AbstractStreamingInput
+{
+	protected static final char NULL = 0;
+
+	private final boolean[] lists;
+	private int level;
+
+	private Token token;
+	private Object value;
+
+	private boolean isKey;
+
+	/**
+	 * If values are skipped instead of parsed, see {@link #setSkipValues(boolean)}.
+	 */
+	private boolean skipValues;
+
+	protected AbstractConfigJsonInput()
+	{
+		lists = new boolean[20];
+	}
+
+	/**
+	 * Skip whitespace, commas and comments.
+	 *
+	 * @throws IOException
+	 */
+	protected abstract void readWhitespace()
+		throws IOException;
+
+	/**
+	 * Get if there is more data to read.
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	protected abstract boolean available()
+		throws IOException;
+
+	/**
+	 * Read the next character.
+	 *
+	 * @return
+	 * @throws IOException
+	 *   if the end of the stream has been reached
+	 */
+	protected abstract char read()
+		throws IOException;
+
+	/**
+	 * Peek at the next character without consuming it.
+	 *
+	 * @param ws
+	 *   if whitespace should be skipped first
+	 * @return
+	 *   the next character or {@link #NULL} if the end of the stream has
+	 *   been reached
+	 * @throws IOException
+	 */
+	protected abstract char peekChar(boolean ws)
+		throws IOException;
+
+	/**
+	 * Check if the upcoming characters match the given string without
+	 * consuming them.
+	 *
+	 * @param value
+	 * @param ws
+	 * @return
+	 * @throws IOException
+	 */
+	protected abstract boolean checkString(String value, boolean ws)
+		throws IOException;
+
+	/**
+	 * Read a string value, after the starting quote has been read.
+	 *
+	 * @param readStart
+	 *   if the starting quote should be read
+	 * @return
+	 * @throws IOException
+	 */
+	protected abstract String readString(boolean readStart)
+		throws IOException;
+
+	/**
+	 * Move past a string value, after the starting quote has been read,
+	 * without decoding it. The default implementation reads the string.
+	 *
+	 * @throws IOException
+	 */
+	protected void skipString()
+		throws IOException
+	{
+		readString(false);
+	}
+
+	/**
+	 * Read a key that is not quoted. Whitespace within the key is skipped.
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	protected abstract String readKey()
+		throws IOException;
+
+	/**
+	 * Read a value that is not quoted, up until the end of the line or
+	 * until a structural character is found.
+	 *
+	 * @return
+	 *   the trimmed value, may be a view that is only valid until more
+	 *   data is read
+	 * @throws IOException
+	 */
+	protected abstract CharSequence readUnquotedValue()
+		throws IOException;
+
+	/**
+	 * Set if values should be skipped instead of parsed. When skipping the
+	 * structure and keys of the document are read as usual but values are
+	 * read as {@code null}, used to quickly find where parts of a document
+	 * start and end.
+	 *
+	 * @param skipValues
+	 */
+	public void setSkipValues(boolean skipValues)
+	{
+		this.skipValues = skipValues;
+	}
+
+	private char readNext()
+		throws IOException
+	{
+		readWhitespace();
+
+		return read();
+	}
+
+	private char peekChar()
+		throws IOException
+	{
+		return peekChar(true);
+	}
+
+	private Token toToken(char c)
+		throws IOException
+	{
+		switch(c)
+		{
+			case '{':
+				return Token.OBJECT_START;
+			case '}':
+				return Token.OBJECT_END;
+			case '[':
+				return Token.LIST_START;
+			case ']':
+				return Token.LIST_END;
+		}
+
+		if(c == 'n')
+		{
+			return checkString("null", false) ? Token.NULL : Token.VALUE;
+		}
+
+		return Token.VALUE;
+	}
+
+	private Object readNextValue()
+		throws IOException
+	{
+		if(peekChar() == '"')
+		{
+			// This is a string
+			read();
+			if(skipValues)
+			{
+				skipString();
+				return null;
+			}
+
+			return readString(false);
+		}
+		else
+		{
+			CharSequence value = readUnquotedValue();
+			return skipValues ? null : ValueParser.parse(value);
+		}
+	}
+
+	/**
+	 * Read an escaped character, after the backslash has been read, and
+	 * append it to the given builder.
+	 *
+	 * @param result
+	 * @throws IOException
+	 */
+	protected void readEscaped(StringBuilder result)
+		throws IOException
+	{
+		char c = read();
+		switch(c)
+		{
+			case '\'':
+				result.append('\'');
+				break;
+			case '"':
+				result.append('"');
+				break;
+			case '\\':
+				result.append('\\');
+				break;
+			case '/':
+				result.append('/');
+				break;
+			case 'r':
+				result.append('\r');
+				break;
+			case 'n':
+				result.append('\n');
+				break;
+			case 't':
+				result.append('\t');
+				break;
+			case 'b':
+				result.append('\b');
+				break;
+			case 'f':
+				result.append('\f');
+				break;
+			case 'u':
+				// Unicode, read 4 chars and treat as hex
+				String s = new String(new char[] { read(), read(), read(), read() });
+				result.append((char) Integer.parseInt(s, 16));
+				break;
+		}
+	}
+
+	@Override
+	public Token next0()
+		throws IOException
+	{
+		Token token = peek0();
+		switch(token)
+		{
+			case OBJECT_END:
+			case LIST_END:
+				isKey = false;
+				readNext();
+				level--;
+				return this.token = token;
+			case OBJECT_START:
+			case LIST_START:
+				isKey = false;
+				readNext();
+				level++;
+				lists[level] = token == Token.LIST_START;
+				return this.token = token;
+			case VALUE:
+			{
+				isKey = ! isKey && ! lists[level];
+
+				if(isKey)
+				{
+					readWhitespace();
+					if(peekChar() == '"')
+					{
+						value = readString(true);
+
+						char next = peekChar();
+						if(next == ':' || next == '=')
+						{
+							readNext();
+						}
+						else if(next == '{' || next == '[')
+						{
+							// Just skip
+						}
+						else
+						{
+							throw new IOException("Expected :, got " + next);
+						}
+					}
+					else
+					{
+						// Case where keys do not include quotes
+						value = readKey();
+					}
+				}
+				else
+				{
+					value = readNextValue();
+
+					// Check for trailing commas
+					readWhitespace();
+					char c = peekChar();
+					if(c == ',') read();
+				}
+
+				return this.token = token;
+			}
+			case NULL:
+			{
+				isKey = false;
+
+				value = null;
+				Object s = readNextValue();
+				if(! skipValues && ! s.equals("null"))
+				{
+					throw new IOException("Invalid stream, encountered null value with trailing data");
+				}
+
+				// Check for trailing commas
+				readWhitespace();
+				char c = peekChar();
+				if(c == ',') read();
+
+				return this.token = token;
+			}
+		}
+
+		return Token.END_OF_STREAM;
+	}
+
+	@Override
+	public Token peek0()
+		throws IOException
+	{
+		readWhitespace();
+
+		if(! available())
+		{
+			return Token.END_OF_STREAM;
+		}
+
+		Token token = toToken(peekChar(false));
+		if(token == Token.NULL && ! isKey && ! lists[level])
+		{
+			return Token.VALUE;
+		}
+
+		return token;
+	}
+
+	@Override
+	protected void skipValue()
+		throws IOException
+	{
+		switch(peek())
+		{
+			case LIST_START:
+			case LIST_END:
+			case OBJECT_START:
+			case OBJECT_END:
+				next();
+				skip();
+				break;
+			default:
+				next();
+		}
+	}
+
+	@Override
+	public Token current()
+	{
+		return token;
+	}
+
+	@Override
+	public OptionalInt getLength()
+	{
+		return OptionalInt.empty();
+	}
+
+	@Override
+	public Object readDynamic0()
+		throws IOException
+	{
+		markValueRead();
+		return value;
+	}
+
+	@Override
+	public String readString()
+		throws IOException
+	{
+		markValueRead();
+		return String.valueOf(value);
+	}
+
+	@Override
+	public boolean readBoolean()
+		throws IOException
+	{
+		markValueRead();
+		return (Boolean) value;
+	}
+
+	@Override
+	public double readDouble()
+		throws IOException
+	{
+		markValueRead();
+		return ((Number) value).doubleValue();
+	}
+
+	@Override
+	public float readFloat()
+		throws IOException
+	{
+		markValueRead();
+		return ((Number) value).floatValue();
+	}
+
+	@Override
+	public long readLong()
+		throws IOException
+	{
+		markValueRead();
+		return ((Number) value).longValue();
+	}
+
+	@Override
+	public int readInt()
+		throws IOException
+	{
+		markValueRead();
+		return ((Number) value).intValue();
+	}
+
+	@Override
+	public short readShort()
+		throws IOException
+	{
+		markValueRead();
+		return ((Number) value).shortValue();
+	}
+
+	@Override
+	public byte readByte()
+		throws IOException
+	{
+		markValueRead();
+		return ((Number) value).byteValue();
+	}
+
+	@Override
+	public char readChar()
+		throws IOException
+	{
+		markValueRead();
+		return (char) ((Number) value).shortValue();
+	}
+
+	@Override
+	public byte[] readByteArray()
+		throws IOException
+	{
+		/*
+		 * JSON uses Base64 strings, so we need to decode on demand.
+		 */
+		String value = readString();
+		return Base64.getDecoder().decode(value);
+	}
+
+	@Override
+	public InputStream readByteStream()
+		throws IOException
+	{
+		// Decode while the stream is read instead of decoding all at once
+		String value = readString();
+		return Base64.getDecoder().wrap(new AsciiInputStream(value));
+	}
+}
@@ -0,0 +1,77 @@
+package se.l4.exoconf.internal.streaming;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * View of a range of a {@link ByteBuffer} that only contains ASCII
+ * characters. Used to look at tokens without decoding them.
+ */
+class AsciiByteSlice
+	implements CharSequence
+{
+	private final ByteBuffer buffer;
+
+	private int start;
+	private int end;
+
+	public AsciiByteSlice(ByteBuffer buffer)
+	{
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Point this slice to a new range.
+	 *
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	public AsciiByteSlice set(int start, int end)
+	{
+		this.start = start;
+		this.end = end;
+		return this;
+	}
+
+	@Override
+	public int length()
+	{
+		return end - start;
+	}
+
+	@Override
+	public char charAt(int index)
+	{
+		return (char) buffer.get(start + index);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end)
+	{
+		return toString(this.start + start, this.start + end);
+	}
+
+	@Override
+	public String toString()
+	{
+		return toString(start, end);
+	}
+
+	private String toString(int start, int end)
+	{
+		int length = end - start;
+		if(buffer.hasArray())
+		{
+			return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.ISO_8859_1);
+		}
+
+		byte[] data = new byte[length];
+		for(int i=0; i<length; i++)
+		{
+			data[i] = buffer.get(start + i);
+		}
+
+		return new String(data, StandardCharsets.ISO_8859_1);
+	}
+}
@@ -0,0 +1,76 @@
+package se.l4.exoconf.internal.streaming;
+
+import java.io.InputStream;
+
+/**
+ * Stream over the characters of a {@link CharSequence} that only contains
+ * ASCII, such as a Base64 encoded value. Used to decode values without
+ * copying them into a byte array first.
+ */
+class AsciiInputStream
+	extends InputStream
+{
+	private final CharSequence chars;
+	private int position;
+
+	public AsciiInputStream(CharSequence chars)
+	{
+		this.chars = chars;
+	}
+
+	@Override
+	public int read()
+	{
+		if(position >= chars.length())
+		{
+			return -1;
+		}
+
+		return toByte(chars.charAt(position++));
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len)
+	{
+		int remaining = chars.length() - position;
+		if(remaining <= 0)
+		{
+			return len == 0 ? 0 : -1;
+		}
+
+		int n = Math.min(len, remaining);
+		for(int i=0; i<n; i++)
+		{
+			b[off + i] = (byte) toByte(chars.charAt(position++));
+		}
+
+		return n;
+	}
+
+	/**
+	 * Convert a character into a byte, characters outside of ASCII are
+	 * replaced with {@code ?} so that decoders reject them instead of
+	 * reading a truncated character.
+	 *
+	 * @param c
+	 * @return
+	 */
+	private static int toByte(char c)
+	{
+		return c < 0x80 ? c : '?';
+	}
+
+	@Override
+	public long skip(long n)
+	{
+		int skipped = (int) Math.max(0, Math.min(n, chars.length() - position));
+		position += skipped;
+		return skipped;
+	}
+
+	@Override
+	public int available()
+	{
+		return chars.length() - position;
+	}
+}
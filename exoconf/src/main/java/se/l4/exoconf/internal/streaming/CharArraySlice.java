@@ -0,0 +1,54 @@
+package se.l4.exoconf.internal.streaming;
+
+/**
+ * View of a range of a {@code char[]}. Used to look at tokens without
+ * copying them, a slice is only valid until the input it was created by
+ * reads more data.
+ */
+class CharArraySlice
+	implements CharSequence
+{
+	private char[] chars;
+	private int start;
+	private int end;
+
+	/**
+	 * Point this slice to a new range.
+	 *
+	 * @param chars
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	public CharArraySlice set(char[] chars, int start, int end)
+	{
+		this.chars = chars;
+		this.start = start;
+		this.end = end;
+		return this;
+	}
+
+	@Override
+	public int length()
+	{
+		return end - start;
+	}
+
+	@Override
+	public char charAt(int index)
+	{
+		return chars[start + index];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end)
+	{
+		return new String(chars, this.start + start, end - start);
+	}
+
+	@Override
+	public String toString()
+	{
+		return new String(chars, start, end - start);
+	}
+}
@@ -0,0 +1,537 @@
+package se.l4.exoconf.internal.streaming;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Input for the custom JSON-like config format that reads UTF-8 encoded
+ * data directly from a {@link ByteBuffer}, such as a memory-mapped file.
+ *
+ * <p>
+ * All structural characters of the format are ASCII and can never be part
+ * of a multi-byte UTF-8 sequence, so the input is scanned byte by byte and
+ * only the bytes that make up keys and values are decoded.
+ */
+public class ConfigJsonBytesInput
+	extends AbstractConfigJsonInput
+{
+	private static final int REPLACEMENT = 0xFFFD;
+
+	private final ByteBuffer buffer;
+	private final byte[] array;
+	private final int arrayOffset;
+
+	private int position;
+	private final int limit;
+
+	private final AsciiByteSlice slice;
+	private byte[] scratch;
+
+	public ConfigJsonBytesInput(byte[] data)
+	{
+		this(ByteBuffer.wrap(data));
+	}
+
+	public ConfigJsonBytesInput(ByteBuffer buffer)
+	{
+		this.buffer = buffer;
+
+		if(buffer.hasArray())
+		{
+			array = buffer.array();
+			arrayOffset = buffer.arrayOffset();
+		}
+		else
+		{
+			array = null;
+			arrayOffset = 0;
+		}
+
+		position = buffer.position();
+		limit = buffer.limit();
+
+		slice = new AsciiByteSlice(buffer);
+	}
+
+	@Override
+	public void close()
+		throws IOException
+	{
+		// Nothing to close
+	}
+
+	/**
+	 * Get the index in the buffer of the next byte that will be read. After
+	 * a call to {@link #peek()} this is the start of the next token.
+	 *
+	 * @return
+	 */
+	public int getPosition()
+	{
+		return position;
+	}
+
+	private int byteAt(int index)
+	{
+		return buffer.get(index) & 0xff;
+	}
+
+	/**
+	 * Get the length of the UTF-8 sequence starting with the given byte.
+	 *
+	 * @param b
+	 * @return
+	 */
+	private static int sequenceLength(int b)
+	{
+		if(b < 0x80)
+		{
+			return 1;
+		}
+		else if((b & 0xE0) == 0xC0)
+		{
+			return 2;
+		}
+		else if((b & 0xF0) == 0xE0)
+		{
+			return 3;
+		}
+		else if((b & 0xF8) == 0xF0)
+		{
+			return 4;
+		}
+
+		// Invalid start of sequence, treat as a single byte
+		return 1;
+	}
+
+	/**
+	 * Decode the code point at the given index. Invalid sequences are
+	 * decoded as the replacement character.
+	 *
+	 * @param index
+	 * @return
+	 */
+	private int codePointAt(int index)
+	{
+		int b = byteAt(index);
+		int length = sequenceLength(b);
+		if(length == 1)
+		{
+			return b < 0x80 ? b : REPLACEMENT;
+		}
+		else if(index + length > limit)
+		{
+			return REPLACEMENT;
+		}
+
+		int cp = b & (0xFF >> (length + 1));
+		for(int i=1; i<length; i++)
+		{
+			int next = byteAt(index + i);
+			if((next & 0xC0) != 0x80)
+			{
+				return REPLACEMENT;
+			}
+
+			cp = (cp << 6) | (next & 0x3F);
+		}
+
+		return cp;
+	}
+
+	/**
+	 * Get the number of bytes used by the character at the given index.
+	 *
+	 * @param index
+	 * @return
+	 */
+	private int lengthAt(int index)
+	{
+		int length = sequenceLength(byteAt(index));
+		return index + length > limit ? 1 : length;
+	}
+
+	private boolean isWhitespaceAt(int index)
+	{
+		int b = byteAt(index);
+		if(b < 0x80)
+		{
+			return Character.isWhitespace(b);
+		}
+
+		return Character.isWhitespace(codePointAt(index));
+	}
+
+	/**
+	 * Decode the given range of bytes into a string.
+	 *
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	private String decode(int start, int end)
+	{
+		int length = end - start;
+		if(array != null)
+		{
+			return new String(array, arrayOffset + start, length, StandardCharsets.UTF_8);
+		}
+
+		if(scratch == null || scratch.length < length)
+		{
+			scratch = new byte[Math.max(length, 64)];
+		}
+
+		for(int i=0; i<length; i++)
+		{
+			scratch[i] = buffer.get(start + i);
+		}
+
+		return new String(scratch, 0, length, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	protected void readWhitespace()
+		throws IOException
+	{
+		while(position < limit)
+		{
+			int b = byteAt(position);
+			if(b == ',')
+			{
+				position++;
+			}
+			else if(b == '#')
+			{
+				// Comment
+				readUntilEndOfLine();
+			}
+			else if(isWhitespaceAt(position))
+			{
+				position += lengthAt(position);
+			}
+			else
+			{
+				return;
+			}
+		}
+	}
+
+	private void readUntilEndOfLine()
+	{
+		while(position < limit)
+		{
+			int b = byteAt(position);
+			if(b == '\n' || b == '\r')
+			{
+				return;
+			}
+
+			position++;
+		}
+	}
+
+	@Override
+	protected boolean available()
+	{
+		return position < limit;
+	}
+
+	@Override
+	protected char read()
+		throws IOException
+	{
+		if(position >= limit)
+		{
+			throw new EOFException();
+		}
+
+		char c = charAt(position);
+		position += lengthAt(position);
+		return c;
+	}
+
+	private char charAt(int index)
+	{
+		int b = byteAt(index);
+		if(b < 0x80)
+		{
+			return (char) b;
+		}
+
+		int cp = codePointAt(index);
+		return Character.isBmpCodePoint(cp) ? (char) cp : Character.highSurrogate(cp);
+	}
+
+	@Override
+	protected char peekChar(boolean ws)
+		throws IOException
+	{
+		if(ws) readWhitespace();
+
+		if(position >= limit)
+		{
+			return NULL;
+		}
+
+		return charAt(position);
+	}
+
+	@Override
+	protected boolean checkString(String value, boolean ws)
+		throws IOException
+	{
+		if(ws) readWhitespace();
+
+		int length = value.length();
+		if(limit - position < length)
+		{
+			return false;
+		}
+
+		for(int i=0; i<length; i++)
+		{
+			if(byteAt(position + i) != value.charAt(i))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	protected CharSequence readUnquotedValue()
+		throws IOException
+	{
+		if(position >= limit)
+		{
+			throw new EOFException();
+		}
+
+		// The first character is always part of the value
+		int start = position;
+		boolean ascii = byteAt(position) < 0x80;
+		position += lengthAt(position);
+
+		_outer:
+		while(position < limit)
+		{
+			int b = byteAt(position);
+			ascii &= b < 0x80;
+
+			switch(b)
+			{
+				case '}':
+				case ']':
+				case ',':
+				case ':':
+				case '=':
+				case '\n':
+				case '\r':
+				case NULL:
+					break _outer;
+			}
+
+			position++;
+		}
+
+		// Trim in the same way as String.trim, multi-byte sequences never contain bytes <= ' '
+		int end = position;
+		while(start < end && byteAt(start) <= ' ')
+		{
+			start++;
+		}
+
+		while(end > start && byteAt(end - 1) <= ' ')
+		{
+			end--;
+		}
+
+		return ascii ? slice.set(start, end) : decode(start, end);
+	}
+
+	@Override
+	protected String readString(boolean readStart)
+		throws IOException
+	{
+		if(readStart)
+		{
+			char c = read();
+			if(c != '"') throw new IOException("Expected \", but got " + c);
+		}
+
+		StringBuilder builder = null;
+		int start = position;
+		while(true)
+		{
+			if(position >= limit)
+			{
+				throw new EOFException();
+			}
+
+			int b = byteAt(position);
+			if(b == '"')
+			{
+				String segment = decode(start, position);
+				position++;
+
+				if(builder == null)
+				{
+					return segment;
+				}
+
+				return builder.append(segment).toString();
+			}
+			else if(b == '\\')
+			{
+				if(builder == null)
+				{
+					builder = new StringBuilder();
+				}
+
+				builder.append(decode(start, position));
+				position++;
+				readEscaped(builder);
+				start = position;
+			}
+			else
+			{
+				position++;
+			}
+		}
+	}
+
+	@Override
+	protected void skipString()
+		throws IOException
+	{
+		while(true)
+		{
+			if(position >= limit)
+			{
+				throw new EOFException();
+			}
+
+			int b = byteAt(position++);
+			if(b == '"')
+			{
+				return;
+			}
+			else if(b == '\\')
+			{
+				// Skip the escaped character, longer escapes only use ASCII
+				position++;
+			}
+		}
+	}
+
+	@Override
+	protected String readKey()
+		throws IOException
+	{
+		String result = null;
+		StringBuilder builder = null;
+
+		while(true)
+		{
+			if(position >= limit)
+			{
+				throw new EOFException();
+			}
+
+			int b = byteAt(position);
+			if(b == ':' || b == '=')
+			{
+				position++;
+				break;
+			}
+			else if(b == '{' || b == '[')
+			{
+				// Next is object or list, break
+				break;
+			}
+			else if(b == '\\')
+			{
+				builder = toBuilder(result, builder);
+				result = null;
+
+				position++;
+				readEscaped(builder);
+			}
+			else if(b == ',' || b == '#' || isWhitespaceAt(position))
+			{
+				// Whitespace and comments within keys are skipped
+				readWhitespace();
+			}
+			else
+			{
+				int start = position;
+				scanKey();
+
+				String segment = decode(start, position);
+				if(result == null && builder == null)
+				{
+					result = segment;
+				}
+				else
+				{
+					builder = toBuilder(result, builder);
+					result = null;
+
+					builder.append(segment);
+				}
+			}
+		}
+
+		if(builder != null)
+		{
+			return builder.toString();
+		}
+
+		return result == null ? "" : result;
+	}
+
+	/**
+	 * Move past the characters of a key up until the first character that
+	 * needs special handling.
+	 */
+	private void scanKey()
+	{
+		while(position < limit)
+		{
+			int b = byteAt(position);
+			switch(b)
+			{
+				case ':':
+				case '=':
+				case '{':
+				case '[':
+				case '\\':
+				case ',':
+				case '#':
+					return;
+			}
+
+			if(isWhitespaceAt(position))
+			{
+				return;
+			}
+
+			position += lengthAt(position);
+		}
+	}
+
+	private static StringBuilder toBuilder(String result, StringBuilder builder)
+	{
+		if(builder != null)
+		{
+			return builder;
+		}
+
+		return result == null ? new StringBuilder() : new StringBuilder(result);
+	}
+}
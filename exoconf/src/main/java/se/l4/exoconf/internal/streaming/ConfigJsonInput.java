@@ -1,44 +1,43 @@
 package se.l4.exoconf.internal.streaming;
 
-import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.Reader;
-import java.util.Base64;
-import java.util.OptionalInt;
-
-import se.l4.exobytes.streaming.AbstractStreamingInput;
-import se.l4.exobytes.streaming.Token;
+import java.util.Arrays;
 
 /**
  * Input for the custom JSON-like config format.
+ *
+ * <p>
+ * Tokens are tracked as offsets into the read buffer. While a token is being
+ * read the buffer keeps everything from the start of the token, growing if
+ * needed, so that keys and values can be created with a single copy from
+ * the buffer.
  */
 public class ConfigJsonInput
-	extends AbstractStreamingInput
+	extends AbstractConfigJsonInput
 {
-	private static final char NULL = 0;
-
 	private final Reader in;
+	private final CharArraySlice slice;
 
-	private final char[] buffer;
+	private char[] buffer;
 	private int position;
 	private int limit;
+	private boolean eof;
 
-	private final boolean[] lists;
-	private int level;
-
-	private Token token;
-	private Object value;
-
-	private boolean isKey;
+	/**
+	 * Start of the token being read, or {@code -1} if no token is being
+	 * read. Data after the mark is kept when the buffer is refilled.
+	 */
+	private int mark;
 
 	public ConfigJsonInput(Reader in)
 	{
 		this.in = in;
 
-		lists = new boolean[20];
 		buffer = new char[1024];
+		slice = new CharArraySlice();
+		mark = -1;
 	}
 
 	@Override
@@ -48,7 +47,8 @@ public class ConfigJsonInput
 		in.close();
 	}
 
-	private void readWhitespace()
+	@Override
+	protected void readWhitespace()
 		throws IOException
 	{
 		while(true)
@@ -103,15 +103,8 @@ public class ConfigJsonInput
 		}
 	}
 
-	private char readNext()
-		throws IOException
-	{
-		readWhitespace();
-
-		return read();
-	}
-
-	private char read()
+	@Override
+	protected char read()
 		throws IOException
 	{
 		if(limit - position < 1)
@@ -125,538 +118,332 @@ public class ConfigJsonInput
 		return buffer[position++];
 	}
 
+	/**
+	 * Make sure that at least the given number of characters are available
+	 * in the buffer.
+	 *
+	 * @param minChars
+	 * @return
+	 *   {@code false} if the end of the stream was reached before enough
+	 *   characters could be read
+	 * @throws IOException
+	 */
 	private boolean read(int minChars)
 		throws IOException
 	{
-		if(limit < 0)
-		{
-			return false;
-		}
-		else if(position + minChars < limit)
+		if(limit - position >= minChars)
 		{
 			return true;
 		}
-		else if(limit >= position)
+		else if(eof)
 		{
-			// If we have characters left we need to keep them in the buffer
-			int stop = limit - position;
-			System.arraycopy(buffer, position, buffer, 0, stop);
-			limit = stop;
+			return false;
 		}
 
-		int read = in.read(buffer, limit, buffer.length - limit);
-		position = 0;
-		limit = read;
-
-		if(read == -1)
+		// Move the data that needs to be kept to the start of the buffer
+		int keep = mark >= 0 ? mark : position;
+		if(keep > 0)
 		{
-			return false;
+			System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+			limit -= keep;
+			position -= keep;
+
+			if(mark >= 0)
+			{
+				mark = 0;
+			}
 		}
 
-		if(read < minChars)
+		while(limit - position < minChars)
 		{
-			throw new IOException("Needed " + minChars + " but got " + read);
+			if(limit == buffer.length)
+			{
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+
+			int read = in.read(buffer, limit, buffer.length - limit);
+			if(read == -1)
+			{
+				eof = true;
+				return false;
+			}
+
+			limit += read;
 		}
 
 		return true;
 	}
 
-	private Token toToken(int position)
+	@Override
+	protected boolean available()
 		throws IOException
 	{
-		if(position > limit)
-		{
-			return Token.END_OF_STREAM;
-		}
-
-		char c = buffer[position];
-
-		switch(c)
-		{
-			case '{':
-				return Token.OBJECT_START;
-			case '}':
-				return Token.OBJECT_END;
-			case '[':
-				return Token.LIST_START;
-			case ']':
-				return Token.LIST_END;
-		}
-
-		if(c == 'n')
-		{
-			return checkString("null", false) ? Token.NULL : Token.VALUE;
-		}
-
-		return Token.VALUE;
+		return read(1);
 	}
 
-	private Object readNextValue()
+	@Override
+	protected CharSequence readUnquotedValue()
 		throws IOException
 	{
-		char c = readNext();
-		if(c == '"')
+		if(! read(1))
 		{
-			// This is a string
-			return readString(false);
+			throw new EOFException();
 		}
-		else
-		{
-			StringBuilder value = new StringBuilder();
-			_outer:
-			while(true)
-			{
-				value.append(c);
 
-				c = peekChar(false);
-				switch(c)
-				{
-					case '}':
-					case ']':
-					case ',':
-					case ':':
-					case '=':
-					case '\n':
-					case '\r':
-					case NULL: // EOF
-						break _outer;
-//					default:
-//						if(Character.isWhitespace(c)) break _outer;
-				}
+		// The first character is always part of the value
+		mark = position;
+		position++;
 
-				read();
+		_outer:
+		while(true)
+		{
+			char c = peekChar(false);
+			switch(c)
+			{
+				case '}':
+				case ']':
+				case ',':
+				case ':':
+				case '=':
+				case '\n':
+				case '\r':
+				case NULL: // EOF
+					break _outer;
 			}
 
-			return toObject(value.toString().trim());
+			position++;
 		}
-	}
 
-	private Object toObject(String in)
-	{
-		if(in.equals("false"))
-		{
-			return false;
-		}
-		else if(in.equals("true"))
-		{
-			return true;
-		}
+		// Trim in the same way as String.trim
+		int start = mark;
+		int end = position;
+		mark = -1;
 
-		try
+		while(start < end && buffer[start] <= ' ')
 		{
-			return Long.parseLong(in);
+			start++;
 		}
-		catch(NumberFormatException e)
+
+		while(end > start && buffer[end - 1] <= ' ')
 		{
-			try
-			{
-				return Double.parseDouble(in);
-			}
-			catch(NumberFormatException e2)
-			{
-			}
+			end--;
 		}
 
-		return in;
+		return slice.set(buffer, start, end);
 	}
 
-	private String readString(boolean readStart)
+	@Override
+	protected String readString(boolean readStart)
 		throws IOException
 	{
-		StringBuilder key = new StringBuilder();
-		char c = read();
 		if(readStart)
 		{
+			char c = read();
 			if(c != '"') throw new IOException("Expected \", but got " + c);
-			c = read();
 		}
 
-		while(c != '"')
+		StringBuilder builder = null;
+		mark = position;
+		try
 		{
-			if(c == '\\')
-			{
-				readEscaped(key);
-			}
-			else
+			while(true)
 			{
-				key.append(c);
-			}
+				if(! read(1))
+				{
+					throw new EOFException();
+				}
 
-			c = read();
-		}
+				char c = buffer[position];
+				if(c == '"')
+				{
+					String segment = new String(buffer, mark, position - mark);
+					position++;
 
-		return key.toString();
-	}
+					if(builder == null)
+					{
+						return segment;
+					}
 
-	private String readKey()
-		throws IOException
-	{
-		StringBuilder key = new StringBuilder();
-		char c = read();
-		while(c != ':' && c != '=')
-		{
-			if(c == '\\')
-			{
-				readEscaped(key);
-			}
-			else if(! Character.isWhitespace(c))
-			{
-				key.append(c);
-			}
+					return builder.append(segment).toString();
+				}
+				else if(c == '\\')
+				{
+					if(builder == null)
+					{
+						builder = new StringBuilder();
+					}
 
-			// Peek to see if we should end reading
-			c = peekChar();
-			if(c == '{' || c == '[')
-			{
-				// Next is object or list, break
-				break;
-			}
+					builder.append(buffer, mark, position - mark);
+					position++;
 
-			// Read the actual character
-			c = read();
+					mark = -1;
+					readEscaped(builder);
+					mark = position;
+				}
+				else
+				{
+					position++;
+				}
+			}
 		}
-
-		return key.toString();
-	}
-
-	private void readEscaped(StringBuilder result)
-		throws IOException
-	{
-		char c = read();
-		switch(c)
+		finally
 		{
-			case '\'':
-				result.append('\'');
-				break;
-			case '"':
-				result.append('"');
-				break;
-			case '\\':
-				result.append('\\');
-				break;
-			case '/':
-				result.append('/');
-				break;
-			case 'r':
-				result.append('\r');
-				break;
-			case 'n':
-				result.append('\n');
-				break;
-			case 't':
-				result.append('\t');
-				break;
-			case 'b':
-				result.append('\b');
-				break;
-			case 'f':
-				result.append('\f');
-				break;
-			case 'u':
-				// Unicode, read 4 chars and treat as hex
-				read(4);
-				String s = new String(buffer, position, 4);
-				result.append((char) Integer.parseInt(s, 16));
-				position += 4;
-				break;
+			mark = -1;
 		}
 	}
 
 	@Override
-	public Token next0()
+	protected String readKey()
 		throws IOException
 	{
-		Token token = peek0();
-		switch(token)
+		StringBuilder key = null;
+		String result = null;
+
+		try
 		{
-			case OBJECT_END:
-			case LIST_END:
-				isKey = false;
-				readNext();
-				level--;
-				return this.token = token;
-			case OBJECT_START:
-			case LIST_START:
-				isKey = false;
-				readNext();
-				level++;
-				lists[level] = token == Token.LIST_START;
-				return this.token = token;
-			case VALUE:
+			while(true)
 			{
-				isKey = ! isKey && ! lists[level];
+				if(! read(1))
+				{
+					throw new EOFException();
+				}
 
-				if(isKey)
+				char c = buffer[position];
+				if(c == ':' || c == '=')
 				{
-					readWhitespace();
-					if(peekChar() == '"')
-					{
-						value = readString(true);
-
-						char next = peekChar();
-						if(next == ':' || next == '=')
-						{
-							readNext();
-						}
-						else if(next == '{' || next == '[')
-						{
-							// Just skip
-						}
-						else
-						{
-							throw new IOException("Expected :, got " + next);
-						}
-					}
-					else
-					{
-						// Case where keys do not include quotes
-						value = readKey();
-					}
+					position++;
+					break;
 				}
-				else
+				else if(c == '{' || c == '[')
 				{
-					value = readNextValue();
-
-					// Check for trailing commas
-					readWhitespace();
-					char c = peekChar();
-					if(c == ',') read();
+					// Next is object or list, break
+					break;
 				}
+				else if(c == '\\')
+				{
+					key = toBuilder(result, key);
+					result = null;
 
-				return this.token = token;
-			}
-			case NULL:
-			{
-				isKey = false;
-
-				value = null;
-				Object s = readNextValue();
-				if(! s.equals("null"))
+					position++;
+					readEscaped(key);
+				}
+				else if(c == ',' || c == '#' || Character.isWhitespace(c))
 				{
-					throw new IOException("Invalid stream, encountered null value with trailing data");
+					// Whitespace and comments within keys are skipped
+					readWhitespace();
 				}
+				else
+				{
+					mark = position;
+					scanKey();
 
-				// Check for trailing commas
-				readWhitespace();
-				char c = peekChar();
-				if(c == ',') read();
+					if(result == null && key == null)
+					{
+						result = new String(buffer, mark, position - mark);
+					}
+					else
+					{
+						key = toBuilder(result, key);
+						result = null;
+
+						key.append(buffer, mark, position - mark);
+					}
 
-				return this.token = token;
+					mark = -1;
+				}
 			}
 		}
-
-		return Token.END_OF_STREAM;
-	}
-
-	private char peekChar()
-		throws IOException
-	{
-		return peekChar(true);
-	}
-
-	private char peekChar(boolean ws)
-		throws IOException
-	{
-		if(ws) readWhitespace();
-
-		if(limit - position < 1)
+		finally
 		{
-			if(false == read(1))
-			{
-				return NULL;
-			}
+			mark = -1;
 		}
 
-		if(limit - position > 0)
+		if(key != null)
 		{
-			return buffer[position];
+			return key.toString();
 		}
 
-		return NULL;
+		return result == null ? "" : result;
 	}
 
-	private boolean checkString(String value, boolean ws)
+	/**
+	 * Move past the characters of a key up until the first character that
+	 * needs special handling.
+	 *
+	 * @throws IOException
+	 */
+	private void scanKey()
 		throws IOException
 	{
-		if(ws) readWhitespace();
-
-		int length = value.length();
-
-		if(limit - position < length)
-		{
-			if(false == read(length))
-			{
-				return false;
-			}
-		}
-
-		if(limit - position < length)
-		{
-			// Still not enough data
-			return false;
-		}
-
-		for(int i=0, n=length; i<n; i++)
+		while(read(1))
 		{
-			if(buffer[position+i] != value.charAt(i))
+			char c = buffer[position];
+			switch(c)
 			{
-				return false;
+				case ':':
+				case '=':
+				case '{':
+				case '[':
+				case '\\':
+				case ',':
+				case '#':
+					return;
 			}
-		}
 
-		return true;
-	}
-
-	@Override
-	public Token peek0()
-		throws IOException
-	{
-		readWhitespace();
-
-		if(limit - position < 1)
-		{
-			if(false == read(1)) return Token.END_OF_STREAM;
-		}
-
-		if(limit - position > 0)
-		{
-			Token token = toToken(position);
-			if(token == Token.NULL && ! isKey && ! lists[level])
+			if(Character.isWhitespace(c))
 			{
-				return Token.VALUE;
+				return;
 			}
 
-			return token;
+			position++;
 		}
-
-		return Token.END_OF_STREAM;
 	}
 
-	@Override
-	protected void skipValue()
-		throws IOException
+	private static StringBuilder toBuilder(String result, StringBuilder builder)
 	{
-		switch(peek())
+		if(builder != null)
 		{
-			case LIST_START:
-			case LIST_END:
-			case OBJECT_START:
-			case OBJECT_END:
-				next();
-				skip();
-				break;
-			default:
-				next();
+			return builder;
 		}
-	}
 
-	@Override
-	public Token current()
-	{
-		return token;
-	}
-
-	@Override
-	public OptionalInt getLength()
-	{
-		return OptionalInt.empty();
+		return result == null ? new StringBuilder() : new StringBuilder(result);
 	}
 
 	@Override
-	public Object readDynamic0()
+	protected char peekChar(boolean ws)
 		throws IOException
 	{
-		markValueRead();
-		return value;
-	}
-
-	@Override
-	public String readString()
-		throws IOException
-	{
-		markValueRead();
-		return String.valueOf(value);
-	}
-
-	@Override
-	public boolean readBoolean()
-		throws IOException
-	{
-		markValueRead();
-		return (Boolean) value;
-	}
-
-	@Override
-	public double readDouble()
-		throws IOException
-	{
-		markValueRead();
-		return ((Number) value).doubleValue();
-	}
-
-	@Override
-	public float readFloat()
-		throws IOException
-	{
-		markValueRead();
-		return ((Number) value).floatValue();
-	}
-
-	@Override
-	public long readLong()
-		throws IOException
-	{
-		markValueRead();
-		return ((Number) value).longValue();
-	}
+		if(ws) readWhitespace();
 
-	@Override
-	public int readInt()
-		throws IOException
-	{
-		markValueRead();
-		return ((Number) value).intValue();
-	}
+		if(! read(1))
+		{
+			return NULL;
+		}
 
-	@Override
-	public short readShort()
-		throws IOException
-	{
-		markValueRead();
-		return ((Number) value).shortValue();
+		return buffer[position];
 	}
 
 	@Override
-	public byte readByte()
+	protected boolean checkString(String value, boolean ws)
 		throws IOException
 	{
-		markValueRead();
-		return ((Number) value).byteValue();
-	}
+		if(ws) readWhitespace();
 
-	@Override
-	public char readChar()
-		throws IOException
-	{
-		markValueRead();
-		return (char) ((Number) value).shortValue();
-	}
+		int length = value.length();
+		if(! read(length))
+		{
+			// Not enough data
+			return false;
+		}
 
-	@Override
-	public byte[] readByteArray()
-		throws IOException
-	{
-		/*
-		 * JSON uses Base64 strings, so we need to decode on demand.
-		 */
-		String value = readString();
-		return Base64.getDecoder().decode(value);
-	}
+		for(int i=0, n=length; i<n; i++)
+		{
+			if(buffer[position+i] != value.charAt(i))
+			{
+				return false;
+			}
+		}
 
-	@Override
-	public InputStream readByteStream()
-		throws IOException
-	{
-		return new ByteArrayInputStream(readByteArray());
+		return true;
 	}
 }
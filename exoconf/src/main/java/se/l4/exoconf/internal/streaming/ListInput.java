@@ -28,21 +28,45 @@ public class ListInput
 	}
 
 	private final ConfigSource source;
-	private final IntIterator iterator;
 	private final String key;
+	private final ValueCache values;
+
+	/**
+	 * Iterator over the indexes of the list, resolved when the first item is
+	 * requested.
+	 */
+	private IntIterator iterator;
 
 	private State state;
 	private State previousState;
 
+	/**
+	 * The number of items in the list, resolved together with the indexes.
+	 */
+	private int length;
+
+	/**
+	 * If {@link Token#LIST_START} was the last token returned, in which case
+	 * {@link #getLength()} reports the size of this list.
+	 */
+	private boolean atStart;
+
 	private StreamingInput subInput;
 
-	public ListInput(ConfigSource source, String key, IntIterable indexes)
+	public ListInput(ConfigSource source, String key, ValueCache values)
 	{
 		this.source = source;
 		this.key = key;
+		this.values = values;
 		state = State.START;
+	}
+
+	public ListInput(ConfigSource source, String key, IntIterable indexes, ValueCache values)
+	{
+		this(source, key, values);
 
 		this.iterator = indexes.intIterator();
+		this.length = indexes.size();
 	}
 
 	@Override
@@ -88,11 +112,13 @@ public class ListInput
 	public Token next0()
 		throws IOException
 	{
+		atStart = false;
 		switch(state)
 		{
 			case START:
 				// Check what the next state should be
 				advancePosition();
+				atStart = true;
 				return Token.LIST_START;
 			case VALUE:
 				/*
@@ -124,10 +150,17 @@ public class ListInput
 
 	private void advancePosition()
 	{
+		if(iterator == null)
+		{
+			IntIterable indexes = source.getIndexes(key);
+			iterator = indexes.intIterator();
+			length = indexes.size();
+		}
+
 		if(iterator.hasNext())
 		{
 			int idx = iterator.next();
-			subInput = MapInput.resolveInput(source, key + ConfigKeys.PATH_DELIMITER + idx);
+			subInput = MapInput.resolveInput(source, key + ConfigKeys.PATH_DELIMITER + idx, values);
 			setState(State.VALUE);
 		}
 		else
@@ -145,6 +178,11 @@ public class ListInput
 	@Override
 	public OptionalInt getLength()
 	{
+		if(atStart)
+		{
+			return OptionalInt.of(length);
+		}
+
 		return subInput == null ? OptionalInt.empty() : subInput.getLength();
 	}
 
@@ -5,10 +5,7 @@ import java.io.InputStream;
 import java.util.Iterator;
 import java.util.OptionalInt;
 
-import org.eclipse.collections.api.IntIterable;
-import org.eclipse.collections.api.RichIterable;
-import org.eclipse.collections.api.factory.Lists;
-import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.list.primitive.IntList;
 
 import se.l4.exobytes.streaming.AbstractStreamingInput;
 import se.l4.exobytes.streaming.StreamingInput;
@@ -34,27 +31,34 @@ public class MapInput
 
 	private final String key;
 	private final ConfigSource source;
-	private final Iterator<String> iterator;
+	private final ValueCache values;
+
+	/**
+	 * Iterator over the keys of the object, created when the first key after
+	 * {@link ConfigKey#NAME} is requested.
+	 */
+	private Iterator<String> iterator;
 
 	private String currentKey;
 
 	private State state;
 	private State previousState;
 
+	/**
+	 * If {@link Token#OBJECT_START} was the last token returned, in which
+	 * case {@link #getLength()} reports the size of this object.
+	 */
+	private boolean atStart;
+
 	private StreamingInput subInput;
 
-	public MapInput(ConfigSource source, String key)
+	public MapInput(ConfigSource source, String key, ValueCache values)
 	{
 		this.key = key;
 		state = State.START;
 
 		this.source = source;
-
-		// Combine current key name with sub keys
-		MutableList<String> list = Lists.mutable.empty();
-		list.add(ConfigKey.NAME);
-		list.withAll(source.getKeys(key));
-		this.iterator = list.iterator();
+		this.values = values;
 	}
 
 	@Override
@@ -64,29 +68,26 @@ public class MapInput
 		// Nothing to close
 	}
 
-	public static StreamingInput resolveInput(ConfigSource source, String key)
+	public static StreamingInput resolveInput(ConfigSource source, String key, ValueCache values)
 	{
 		Object value = source.getValue(key);
-		if(value == null)
+		if(value != null)
 		{
-			RichIterable<String> keys = source.getKeys(key);
-			if(keys.size() > 0)
-			{
-				IntIterable indexes = ConfigKeys.toList(keys);
-				if(indexes.size() > 0)
-				{
-					return new ListInput(source, key, indexes);
-				}
-
-				return new MapInput(source, key);
-			}
+			return new ValueInput(key, value, values);
+		}
 
-			return new NullInput(key);
+		IntList indexes = source.getIndexes(key);
+		if(! indexes.isEmpty())
+		{
+			return new ListInput(source, key, indexes, values);
 		}
-		else
+
+		if(! source.iterateKeys(key).hasNext())
 		{
-			return new ValueInput(key, value);
+			return new NullInput(key);
 		}
+
+		return new MapInput(source, key, values);
 	}
 
 	private StreamingInput resolveInput()
@@ -94,10 +95,10 @@ public class MapInput
 		String newKey = key.isEmpty() ? currentKey : key + ConfigKeys.PATH_DELIMITER + currentKey;
 		if(ConfigKey.NAME.equals(currentKey))
 		{
-			return new ValueInput(newKey, key);
+			return new ValueInput(newKey, key, values);
 		}
 
-		return resolveInput(source, newKey);
+		return resolveInput(source, newKey, values);
 	}
 
 	@Override
@@ -138,11 +139,13 @@ public class MapInput
 	public Token next0()
 		throws IOException
 	{
+		atStart = false;
 		switch(state)
 		{
 			case START:
 				// Check what the next state should be
 				advancePosition();
+				atStart = true;
 				return Token.OBJECT_START;
 			case KEY:
 				setState(State.VALUE);
@@ -178,7 +181,14 @@ public class MapInput
 
 	private void advancePosition()
 	{
-		if(iterator.hasNext())
+		if(iterator == null)
+		{
+			// The name of the object is always the first key
+			currentKey = ConfigKey.NAME;
+			iterator = source.iterateKeys(key);
+			setState(State.KEY);
+		}
+		else if(iterator.hasNext())
 		{
 			currentKey = iterator.next();
 			setState(State.KEY);
@@ -192,6 +202,13 @@ public class MapInput
 	@Override
 	public OptionalInt getLength()
 	{
+		if(atStart)
+		{
+			// The name of the object is always included as a key
+			OptionalInt count = source.countKeys(key);
+			return count.isPresent() ? OptionalInt.of(count.getAsInt() + 1) : count;
+		}
+
 		return subInput == null ? OptionalInt.empty() : subInput.getLength();
 	}
 
@@ -0,0 +1,204 @@
+package se.l4.exoconf.internal.streaming;
+
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of values converted from strings, such as numbers parsed from
+ * environment variables and properties or decoded Base64 values.
+ *
+ * <p>
+ * Parsed numbers are stored next to the string they were parsed from and
+ * are read without locking. Strings only come from the values and keys of
+ * a single source, so the numbers are bounded by the size of the source.
+ * Decoded values are evicted, least recently used first, when their total
+ * size exceeds the limit of the cache.
+ *
+ * <p>
+ * A cache is only valid for the source it was populated from and is
+ * replaced whenever the source changes.
+ */
+public class ValueCache
+{
+	private final ConcurrentHashMap<String, Number> numbers;
+	private final Map<String, byte[]> bytes;
+	private final long maxBytes;
+	private long cachedBytes;
+
+	/**
+	 * Create a new cache.
+	 *
+	 * @param maxBytes
+	 *   the maximum total size of decoded values to keep
+	 */
+	public ValueCache(long maxBytes)
+	{
+		this.maxBytes = maxBytes;
+
+		numbers = new ConcurrentHashMap<>();
+		bytes = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Convert a value as returned by a source into a double.
+	 *
+	 * @param value
+	 * @return
+	 */
+	public double toDouble(Object value)
+	{
+		if(value instanceof Number)
+		{
+			return ((Number) value).doubleValue();
+		}
+
+		Number parsed = parseNumber(value);
+		return parsed != null
+			? parsed.doubleValue()
+			: Double.parseDouble(String.valueOf(value));
+	}
+
+	/**
+	 * Convert a value as returned by a source into a long.
+	 *
+	 * @param value
+	 * @return
+	 */
+	public long toLong(Object value)
+	{
+		if(value instanceof Number)
+		{
+			return ((Number) value).longValue();
+		}
+
+		Number parsed = parseNumber(value);
+		return parsed instanceof Long
+			? parsed.longValue()
+			: Long.parseLong(String.valueOf(value));
+	}
+
+	/**
+	 * Convert a value as returned by a source into an int.
+	 *
+	 * @param value
+	 * @return
+	 */
+	public int toInt(Object value)
+	{
+		if(value instanceof Number)
+		{
+			return ((Number) value).intValue();
+		}
+
+		Number parsed = parseNumber(value);
+		if(parsed instanceof Long)
+		{
+			long l = parsed.longValue();
+			if(l == (int) l)
+			{
+				return (int) l;
+			}
+		}
+
+		// Not an int, parse to get the same error as without the cache
+		return Integer.parseInt(String.valueOf(value));
+	}
+
+	/**
+	 * Get the number a string value represents, parsing it the first time
+	 * it is seen.
+	 *
+	 * @param value
+	 * @return
+	 *   the number, or {@code null} if the value is not a string or does
+	 *   not represent a number
+	 */
+	private Number parseNumber(Object value)
+	{
+		if(! (value instanceof String))
+		{
+			return null;
+		}
+
+		String string = (String) value;
+		Number result = numbers.get(string);
+		if(result != null)
+		{
+			return result;
+		}
+
+		Object parsed = ValueParser.parse(string);
+		if(! (parsed instanceof Long || parsed instanceof Double))
+		{
+			return null;
+		}
+
+		result = (Number) parsed;
+		numbers.put(string, result);
+		return result;
+	}
+
+	/**
+	 * Get the bytes of a Base64 encoded value, decoding it the first time
+	 * it is seen. The returned array may be shared and must not be
+	 * modified.
+	 *
+	 * @param value
+	 * @return
+	 */
+	public byte[] decode(String value)
+	{
+		byte[] result = getDecoded(value);
+		if(result != null)
+		{
+			return result;
+		}
+
+		// Decode without holding the lock, values may be large
+		result = Base64.getDecoder().decode(value);
+		if(result.length > maxBytes)
+		{
+			return result;
+		}
+
+		synchronized(bytes)
+		{
+			byte[] existing = bytes.putIfAbsent(value, result);
+			if(existing != null)
+			{
+				return existing;
+			}
+
+			cachedBytes += result.length;
+
+			// Evict the least recently used values until within the limit
+			Iterator<byte[]> it = bytes.values().iterator();
+			while(cachedBytes > maxBytes)
+			{
+				cachedBytes -= it.next().length;
+				it.remove();
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Get the bytes of a Base64 encoded value if it has already been
+	 * decoded.
+	 *
+	 * @param value
+	 * @return
+	 *   the shared decoded bytes, or {@code null} if not cached
+	 */
+	public byte[] getDecoded(String value)
+	{
+		synchronized(bytes)
+		{
+			return bytes.get(value);
+		}
+	}
+}
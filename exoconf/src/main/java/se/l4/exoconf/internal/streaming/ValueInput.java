@@ -14,13 +14,15 @@ public class ValueInput
 	implements StreamingInput
 {
 	private final Object value;
+	private final ValueCache values;
 	private boolean used;
 	private String key;
 
-	public ValueInput(String key, Object value)
+	public ValueInput(String key, Object value, ValueCache values)
 	{
 		this.key = key;
 		this.value = value;
+		this.values = values;
 	}
 
 	@Override
@@ -106,17 +108,13 @@ public class ValueInput
 	@Override
 	public boolean readBoolean()
 	{
-		return value instanceof Boolean
-			? (Boolean) value
-			: Boolean.parseBoolean(readString());
+		return toBoolean(value);
 	}
 
 	@Override
 	public double readDouble()
 	{
-		return value instanceof Number
-			? ((Number) value).doubleValue()
-			: Double.parseDouble(String.valueOf(value));
+		return values.toDouble(value);
 	}
 
 	@Override
@@ -130,17 +128,13 @@ public class ValueInput
 	@Override
 	public long readLong()
 	{
-		return value instanceof Number
-			? ((Number) value).longValue()
-			: Long.parseLong(String.valueOf(value));
+		return values.toLong(value);
 	}
 
 	@Override
 	public int readInt()
 	{
-		return value instanceof Number
-			? ((Number) value).intValue()
-			: Integer.parseInt(String.valueOf(value));
+		return values.toInt(value);
 	}
 
 	@Override
@@ -168,14 +162,48 @@ public class ValueInput
 	@Override
 	public byte[] readByteArray()
 	{
-		return value instanceof byte[]
-			? (byte[]) value
-			: Base64.getDecoder().decode(String.valueOf(value));
+		if(value instanceof byte[])
+		{
+			return (byte[]) value;
+		}
+		else if(value instanceof String)
+		{
+			// Decode once, but never share the cached array with the caller
+			return values.decode((String) value).clone();
+		}
+
+		return Base64.getDecoder().decode(String.valueOf(value));
 	}
 
 	@Override
 	public InputStream readByteStream()
 	{
-		return new ByteArrayInputStream(readByteArray());
+		if(value instanceof byte[])
+		{
+			return new ByteArrayInputStream((byte[]) value);
+		}
+
+		String encoded = String.valueOf(value);
+		byte[] decoded = values.getDecoded(encoded);
+		if(decoded != null)
+		{
+			return new ByteArrayInputStream(decoded);
+		}
+
+		// Decode while the stream is read instead of decoding all at once
+		return Base64.getDecoder().wrap(new AsciiInputStream(encoded));
+	}
+
+	/**
+	 * Convert a value as returned by a source into a boolean.
+	 *
+	 * @param value
+	 * @return
+	 */
+	public static boolean toBoolean(Object value)
+	{
+		return value instanceof Boolean
+			? (Boolean) value
+			: Boolean.parseBoolean(String.valueOf(value));
 	}
 }
@@ -0,0 +1,343 @@
+package se.l4.exoconf.internal.streaming;
+
+/**
+ * Conversion of unquoted values into booleans, numbers and strings. Values
+ * are classified by scanning them once, following the same rules as
+ * {@link Long#parseLong(String)} and {@link Double#parseDouble(String)} but
+ * without throwing and catching exceptions for values that are not numbers.
+ */
+public class ValueParser
+{
+	private ValueParser()
+	{
+	}
+
+	/**
+	 * Convert an unquoted value into the object it represents. The value
+	 * may be a view into a buffer, it is only turned into a string if it
+	 * does not represent a boolean or a long.
+	 *
+	 * @param in
+	 * @return
+	 *   {@link Boolean}, {@link Long}, {@link Double} or the value as a
+	 *   string if it does not represent a boolean or a number
+	 */
+	public static Object parse(CharSequence in)
+	{
+		if(in.length() == 0)
+		{
+			return "";
+		}
+
+		char first = in.charAt(0);
+		if(first == 't')
+		{
+			return contentEquals(in, 0, "true") ? Boolean.TRUE : in.toString();
+		}
+		else if(first == 'f')
+		{
+			return contentEquals(in, 0, "false") ? Boolean.FALSE : in.toString();
+		}
+		else if(! mayBeNumber(first))
+		{
+			return in.toString();
+		}
+
+		Long longValue = parseLong(in);
+		if(longValue != null)
+		{
+			return longValue;
+		}
+
+		String value = in.toString();
+		if(isDouble(value))
+		{
+			return Double.parseDouble(value);
+		}
+
+		return value;
+	}
+
+	private static boolean mayBeNumber(char c)
+	{
+		switch(c)
+		{
+			case '+':
+			case '-':
+			case '.':
+			case 'N':
+			case 'I':
+				return true;
+		}
+
+		if(c >= '0' && c <= '9')
+		{
+			return true;
+		}
+
+		return c >= 0x80 && Character.isDigit(c);
+	}
+
+	/**
+	 * Parse a long in the same way as {@link Long#parseLong(String)}.
+	 *
+	 * @param s
+	 * @return
+	 *   the parsed value or {@code null} if the string is not a valid long
+	 */
+	private static Long parseLong(CharSequence s)
+	{
+		int length = s.length();
+		int i = 0;
+		boolean negative = false;
+		long limit = -Long.MAX_VALUE;
+
+		char first = s.charAt(0);
+		if(first < '0')
+		{
+			if(first == '-')
+			{
+				negative = true;
+				limit = Long.MIN_VALUE;
+			}
+			else if(first != '+')
+			{
+				return null;
+			}
+
+			if(length == 1)
+			{
+				return null;
+			}
+
+			i++;
+		}
+
+		// Accumulate negatively to be able to represent Long.MIN_VALUE
+		long multmin = limit / 10;
+		long result = 0;
+		while(i < length)
+		{
+			int digit = Character.digit(s.charAt(i++), 10);
+			if(digit < 0 || result < multmin)
+			{
+				return null;
+			}
+
+			result *= 10;
+			if(result < limit + digit)
+			{
+				return null;
+			}
+
+			result -= digit;
+		}
+
+		return negative ? result : -result;
+	}
+
+	/**
+	 * Check if the string can be parsed by {@link Double#parseDouble(String)}.
+	 *
+	 * @param s
+	 * @return
+	 */
+	private static boolean isDouble(String s)
+	{
+		int length = s.length();
+		int i = 0;
+
+		char c = s.charAt(i);
+		if(c == '+' || c == '-')
+		{
+			if(++i == length)
+			{
+				return false;
+			}
+
+			c = s.charAt(i);
+		}
+
+		if(c == 'N')
+		{
+			return contentEquals(s, i, "NaN");
+		}
+		else if(c == 'I')
+		{
+			return contentEquals(s, i, "Infinity");
+		}
+		else if(c == '0' && i + 1 < length && (s.charAt(i + 1) == 'x' || s.charAt(i + 1) == 'X'))
+		{
+			return isHexDouble(s, i + 2);
+		}
+
+		int digits = 0;
+		while(i < length && isDigit(s.charAt(i)))
+		{
+			i++;
+			digits++;
+		}
+
+		if(i < length && s.charAt(i) == '.')
+		{
+			i++;
+			while(i < length && isDigit(s.charAt(i)))
+			{
+				i++;
+				digits++;
+			}
+		}
+
+		if(digits == 0)
+		{
+			return false;
+		}
+
+		if(i < length && (s.charAt(i) == 'e' || s.charAt(i) == 'E'))
+		{
+			i = skipExponent(s, i + 1);
+			if(i < 0)
+			{
+				return false;
+			}
+		}
+
+		return isEnd(s, i);
+	}
+
+	/**
+	 * Check if the string is a hexadecimal floating point value, starting
+	 * after the {@code 0x} prefix. Hexadecimal values always require a
+	 * binary exponent.
+	 *
+	 * @param s
+	 * @param i
+	 * @return
+	 */
+	private static boolean isHexDouble(String s, int i)
+	{
+		int length = s.length();
+
+		int digits = 0;
+		while(i < length && isHexDigit(s.charAt(i)))
+		{
+			i++;
+			digits++;
+		}
+
+		if(i < length && s.charAt(i) == '.')
+		{
+			i++;
+			while(i < length && isHexDigit(s.charAt(i)))
+			{
+				i++;
+				digits++;
+			}
+		}
+
+		if(digits == 0 || i == length || (s.charAt(i) != 'p' && s.charAt(i) != 'P'))
+		{
+			return false;
+		}
+
+		i = skipExponent(s, i + 1);
+		return i >= 0 && isEnd(s, i);
+	}
+
+	/**
+	 * Skip the digits of an exponent, starting after the exponent marker.
+	 *
+	 * @param s
+	 * @param i
+	 * @return
+	 *   the index after the exponent or {@code -1} if the exponent is
+	 *   invalid
+	 */
+	private static int skipExponent(String s, int i)
+	{
+		int length = s.length();
+		if(i < length && (s.charAt(i) == '+' || s.charAt(i) == '-'))
+		{
+			i++;
+		}
+
+		int start = i;
+		while(i < length && isDigit(s.charAt(i)))
+		{
+			i++;
+		}
+
+		return i == start ? -1 : i;
+	}
+
+	/**
+	 * Check that the string ends at the given index, optionally after a
+	 * type suffix.
+	 *
+	 * @param s
+	 * @param i
+	 * @return
+	 */
+	private static boolean isEnd(String s, int i)
+	{
+		int length = s.length();
+		if(i == length)
+		{
+			return true;
+		}
+
+		if(i == length - 1)
+		{
+			switch(s.charAt(i))
+			{
+				case 'f':
+				case 'F':
+				case 'd':
+				case 'D':
+					return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Check if the sequence, starting at the given index, is equal to the
+	 * expected string.
+	 *
+	 * @param s
+	 * @param offset
+	 * @param expected
+	 * @return
+	 */
+	private static boolean contentEquals(CharSequence s, int offset, String expected)
+	{
+		int length = expected.length();
+		if(s.length() - offset != length)
+		{
+			return false;
+		}
+
+		for(int i=0; i<length; i++)
+		{
+			if(s.charAt(offset + i) != expected.charAt(i))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean isDigit(char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isHexDigit(char c)
+	{
+		return (c >= '0' && c <= '9')
+			|| (c >= 'a' && c <= 'f')
+			|| (c >= 'A' && c <= 'F');
+	}
+}
@@ -0,0 +1,136 @@
+package se.l4.exoconf.sources;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.list.MutableList;
+
+import se.l4.exobytes.streaming.StreamingInput;
+import se.l4.exobytes.streaming.Token;
+import se.l4.exoconf.internal.streaming.ConfigJsonBytesInput;
+
+/**
+ * Scanner that finds the top-level blocks of a config file, such as
+ * {@code thumbs: { ... }} or {@code thumbs.small.width: 150}. Every block
+ * is a valid document on its own, so blocks can be parsed separately.
+ *
+ * <p>
+ * The scan uses the regular input with values skipped, so it follows the
+ * same rules as parsing while avoiding decoding and parsing of values.
+ */
+class BlockScanner
+{
+	private BlockScanner()
+	{
+	}
+
+	/**
+	 * Find the top-level blocks in the remaining bytes of the buffer.
+	 *
+	 * @param buffer
+	 * @return
+	 *   the blocks in the order they appear in the buffer
+	 * @throws IOException
+	 */
+	public static ImmutableList<Block> scan(ByteBuffer buffer)
+		throws IOException
+	{
+		MutableList<Block> result = Lists.mutable.empty();
+
+		try(ConfigJsonBytesInput in = new ConfigJsonBytesInput(buffer))
+		{
+			in.setSkipValues(true);
+
+			boolean readEnd = false;
+			if(in.peek() == Token.OBJECT_START)
+			{
+				// The document is wrapped, blocks are within the braces
+				readEnd = true;
+				in.next();
+			}
+
+			Token t;
+			while((t = in.peek()) != Token.OBJECT_END && t != Token.END_OF_STREAM)
+			{
+				int start = in.getPosition();
+
+				in.next(Token.VALUE);
+				String key = in.readString();
+				skipValue(in);
+
+				result.add(new Block(key, start, in.getPosition()));
+			}
+
+			if(readEnd)
+			{
+				in.next(Token.OBJECT_END);
+			}
+		}
+
+		return result.toImmutable();
+	}
+
+	/**
+	 * Move past the next value, reading and discarding nested values.
+	 *
+	 * @param in
+	 * @throws IOException
+	 */
+	private static void skipValue(StreamingInput in)
+		throws IOException
+	{
+		int depth = 0;
+		do
+		{
+			switch(in.next())
+			{
+				case OBJECT_START:
+				case LIST_START:
+					depth++;
+					break;
+				case OBJECT_END:
+				case LIST_END:
+					depth--;
+					break;
+				case END_OF_STREAM:
+					throw new EOFException();
+				default:
+					in.readDynamic();
+			}
+		}
+		while(depth > 0);
+	}
+
+	/**
+	 * Block at the top level of a document.
+	 */
+	static class Block
+	{
+		final String key;
+		final int start;
+		final int end;
+
+		Block(String key, int start, int end)
+		{
+			this.key = key;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * Get the bytes of this block from the buffer it was found in.
+		 *
+		 * @param buffer
+		 * @return
+		 */
+		ByteBuffer slice(ByteBuffer buffer)
+		{
+			ByteBuffer slice = buffer.duplicate();
+			slice.limit(end).position(start);
+			return slice;
+		}
+	}
+}
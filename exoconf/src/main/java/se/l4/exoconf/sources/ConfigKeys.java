@@ -1,17 +1,19 @@
 package se.l4.exoconf.sources;
 
-import java.util.regex.Pattern;
+import java.util.Iterator;
 
 import org.eclipse.collections.api.IntIterable;
 import org.eclipse.collections.api.RichIterable;
+import org.eclipse.collections.api.list.primitive.ImmutableIntList;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.eclipse.collections.impl.list.primitive.IntInterval;
 
 /**
  * Helpers related to configuration keys.
  */
 public class ConfigKeys
 {
-	private static final Pattern INDEX = Pattern.compile("[0-9]+");
-
 	private ConfigKeys()
 	{
 	}
@@ -21,6 +23,11 @@ public class ConfigKeys
 	 */
 	public static char PATH_DELIMITER = '.';
 
+	/**
+	 * The largest list index, used to check that indexes fit in an int.
+	 */
+	private static final String MAX_INDEX = String.valueOf(Integer.MAX_VALUE);
+
 	/**
 	 * Check if the given part of a path is valid.
 	 *
@@ -51,10 +58,90 @@ public class ConfigKeys
 		return key.charAt(prefix.length()) == '.';
 	}
 
+	/**
+	 * Check if the given part of a path is a list index, such as {@code 0}
+	 * in {@code values.0}. Numbers that do not fit in an {@code int} are
+	 * treated as regular keys.
+	 *
+	 * @param part
+	 * @return
+	 */
+	public static boolean isIndex(String part)
+	{
+		int n = part.length();
+		if(n == 0 || n > MAX_INDEX.length())
+		{
+			return false;
+		}
+
+		for(int i=0; i<n; i++)
+		{
+			char c = part.charAt(i);
+			if(c < '0' || c > '9')
+			{
+				return false;
+			}
+		}
+
+		// Same length as the largest index, compare the digits
+		return n < MAX_INDEX.length() || part.compareTo(MAX_INDEX) <= 0;
+	}
+
+	/**
+	 * Collect the list indexes among the given keys in ascending order, keys
+	 * that are not indexes are skipped. Indexes without gaps, which is the
+	 * common case, are returned as a range that does not store the
+	 * individual indexes.
+	 *
+	 * @param keys
+	 * @return
+	 */
+	public static ImmutableIntList toIndexes(Iterator<String> keys)
+	{
+		MutableIntList result = null;
+		while(keys.hasNext())
+		{
+			String part = keys.next();
+			if(isIndex(part))
+			{
+				if(result == null)
+				{
+					result = IntLists.mutable.empty();
+				}
+
+				result.add(Integer.parseInt(part));
+			}
+		}
+
+		if(result == null)
+		{
+			return IntLists.immutable.empty();
+		}
+
+		result.sortThis();
+
+		boolean contiguous = true;
+		for(int i=0, n=result.size(); i<n; i++)
+		{
+			if(result.get(i) != i)
+			{
+				contiguous = false;
+				break;
+			}
+		}
+
+		if(contiguous)
+		{
+			return IntInterval.zeroTo(result.size() - 1);
+		}
+
+		return result.distinct().toImmutable();
+	}
+
 	public static IntIterable toList(RichIterable<String> subKeys)
 	{
 		return subKeys
-			.select(k -> INDEX.matcher(k).matches())
+			.select(ConfigKeys::isIndex)
 			.collectInt(Integer::parseInt)
 			.toSortedList();
 	}
@@ -1,6 +1,12 @@
 package se.l4.exoconf.sources;
 
+import java.util.Iterator;
+import java.util.OptionalInt;
+
 import org.eclipse.collections.api.RichIterable;
+import org.eclipse.collections.api.list.primitive.DoubleList;
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.list.primitive.LongList;
 import org.eclipse.collections.api.map.MapIterable;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -26,6 +32,79 @@ public interface ConfigSource
 	 */
 	RichIterable<String> getKeys(@NonNull String path);
 
+	/**
+	 * Iterate over the keys that are available directly under the given
+	 * path. The default implementation iterates over {@link #getKeys(String)},
+	 * sources that need to collect the keys first should override this to
+	 * produce them lazily.
+	 *
+	 * @param path
+	 * @return
+	 */
+	default Iterator<String> iterateKeys(@NonNull String path)
+	{
+		return getKeys(path).iterator();
+	}
+
+	/**
+	 * Get the number of keys that are available directly under the given
+	 * path if this source can count them without iterating over them. Used
+	 * to presize collections when binding lists and maps. The default
+	 * implementation returns an empty result, sources that index their keys
+	 * should override this.
+	 *
+	 * @param path
+	 * @return
+	 *   the number of keys, or empty if counting requires iterating
+	 */
+	default OptionalInt countKeys(@NonNull String path)
+	{
+		return OptionalInt.empty();
+	}
+
+	/**
+	 * Get the list indexes that are available directly under the given path,
+	 * in ascending order. The default implementation scans the keys via
+	 * {@link #iterateKeys(String)}, sources that index their keys should
+	 * override this to return precomputed indexes.
+	 *
+	 * @param path
+	 * @return
+	 *   the indexes, empty if the path is not a list
+	 */
+	default IntList getIndexes(@NonNull String path)
+	{
+		return ConfigKeys.toIndexes(iterateKeys(path));
+	}
+
+	/**
+	 * Get the list at the given path if this source stores it as integral
+	 * numbers. Sources that do not store primitive lists return
+	 * {@code null}, in which case the items are read one at a time.
+	 *
+	 * @param path
+	 * @return
+	 *   the items of the list, or {@code null}
+	 */
+	default LongList getLongList(@NonNull String path)
+	{
+		return null;
+	}
+
+	/**
+	 * Get the list at the given path if this source stores it as floating
+	 * point numbers. Sources that do not store primitive lists return
+	 * {@code null}, in which case the items are read one at a time.
+	 *
+	 * @param path
+	 * @return
+	 *   the items of the list, or {@code null}
+	 */
+	default DoubleList getDoubleList(@NonNull String path)
+	{
+		return null;
+	}
+
 	/**
 	 * Attempt to get a value from this source. This is expected to only return
 	 * wrapped primitives, {@link String} or {@code null} if the value is not
@@ -1,28 +1,77 @@
 package se.l4.exoconf.sources;
 
+import java.util.OptionalInt;
+
 import org.eclipse.collections.api.RichIterable;
+import org.eclipse.collections.api.list.primitive.IntList;
 import org.eclipse.collections.api.factory.Lists;
 import org.eclipse.collections.api.factory.Maps;
+import org.eclipse.collections.api.list.MutableList;
 import org.eclipse.collections.api.map.MapIterable;
+import org.eclipse.collections.api.map.primitive.ImmutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.impl.factory.primitive.IntObjectMaps;
 import org.eclipse.collections.impl.tuple.Tuples;
 
 /**
  * Source that provides access to environment variables. Added as the highest
  * priority source when using {@link Config.Builder}.
+ *
+ * <p>
+ * All of the name variants of the variables are calculated when the source
+ * is created, so both {@link #getKeys(String)} and {@link #getValue(String)}
+ * are lookups in prebuilt indexes.
  */
 public class EnvironmentConfigSource
 	implements ConfigSource
 {
+	private static final Entry[] NO_ENTRIES = new Entry[0];
+
 	private final MapIterable<String, Object> properties;
+	private final KeyIndex index;
+	private final ImmutableIntObjectMap<Entry[]> entries;
 
 	public EnvironmentConfigSource()
 	{
 		this(Maps.mutable.ofMap(System.getenv()));
 	}
 
+	/**
+	 * Create a source for the given variables instead of the environment of
+	 * the current process.
+	 *
+	 * @param variables
+	 * @return
+	 */
+	public static EnvironmentConfigSource of(MapIterable<String, Object> variables)
+	{
+		return new EnvironmentConfigSource(variables);
+	}
+
 	EnvironmentConfigSource(MapIterable<String, Object> properties)
 	{
 		this.properties = properties.collect((k, v) -> Tuples.pair(k.toUpperCase(), v));
+
+		MutableList<String> variants = Lists.mutable.empty();
+		MutableIntObjectMap<Entry[]> entries = IntObjectMaps.mutable.empty();
+		this.properties.forEachKeyValue((key, value) -> {
+			String trimmedKey = key.trim();
+			variants.add(trimmedKey);
+			variants.add(replaceNonAscii(trimmedKey.toLowerCase()));
+			variants.add(trimmedKey.replace('_', ConfigKeys.PATH_DELIMITER));
+			variants.add(replaceNonAscii(trimmedKey).replace('_', ConfigKeys.PATH_DELIMITER).toLowerCase());
+
+			Entry entry = new Entry(key, value, key.equals(replaceNonAscii(key)));
+			entries.updateValue(hash(key), () -> NO_ENTRIES, current -> {
+				Entry[] result = new Entry[current.length + 1];
+				System.arraycopy(current, 0, result, 0, current.length);
+				result[current.length] = entry;
+				return result;
+			});
+		});
+
+		this.index = KeyIndex.create(variants);
+		this.entries = entries.toImmutable();
 	}
 
 	@Override
@@ -34,58 +83,163 @@ public class EnvironmentConfigSource
 	@Override
 	public RichIterable<String> getKeys(String path)
 	{
-		String prefix = path.isEmpty() ? path : path + ConfigKeys.PATH_DELIMITER;
-		int length = prefix.length();
-		return properties.keysView().asLazy()
-			.flatCollect(key -> {
-				String trimmedKey = key.trim();
-				return Lists.immutable.of(
-					trimmedKey,
-					replaceNonAscii(trimmedKey.toLowerCase()),
-					trimmedKey.replace('_', ConfigKeys.PATH_DELIMITER),
-					replaceNonAscii(trimmedKey).replace('_', ConfigKeys.PATH_DELIMITER).toLowerCase()
-				);
-			})
-			.selectWith(String::startsWith, prefix)
-			.collect(key -> {
-				int idx = key.indexOf(ConfigKeys.PATH_DELIMITER, length);
-				return idx >= 0 ? key.substring(length, idx) : key.substring(length);
-			})
-			.select(s -> ! s.isEmpty())
-			.distinct();
+		return index.getKeys(path);
+	}
+
+	@Override
+	public OptionalInt countKeys(String path)
+	{
+		return OptionalInt.of(index.countKeys(path));
+	}
+
+	@Override
+	public IntList getIndexes(String path)
+	{
+		return index.getIndexes(path);
 	}
 
 	@Override
 	public Object getValue(String path)
 	{
-		String key = path.toUpperCase();
-		Object value = properties.get(key);
-		if(value != null)
+		Entry[] candidates = entries.get(hash(path));
+		if(candidates == null)
+		{
+			return null;
+		}
+
+		// First check for the exact name, ignoring case
+		for(Entry entry : candidates)
 		{
-			return value;
+			if(entry.matchesExact(path))
+			{
+				return entry.value;
+			}
 		}
 
-		return properties.get(replaceNonAscii(key));
+		// Second check with non-ASCII characters replaced with _
+		for(Entry entry : candidates)
+		{
+			if(entry.matchesNormalized(path))
+			{
+				return entry.value;
+			}
+		}
+
+		return null;
+	}
+
+	private static boolean isAscii(char c)
+	{
+		return (c >= '0' && c <= '9')
+			|| (c >= 'a' && c <= 'z')
+			|| (c >= 'A' && c <= 'Z');
+	}
+
+	/**
+	 * Normalize a single character, uppercases ASCII letters and replaces
+	 * everything that is not ASCII with {@code _}.
+	 *
+	 * @param c
+	 * @return
+	 */
+	private static char normalize(char c)
+	{
+		return isAscii(c) ? Character.toUpperCase(c) : '_';
+	}
+
+	/**
+	 * Calculate a hash for the normalized version of the given path, without
+	 * creating the normalized string. Both exact and normalized matches of a
+	 * variable share the same hash.
+	 *
+	 * @param path
+	 * @return
+	 */
+	private static int hash(String path)
+	{
+		int hash = 0;
+		for(int i=0, n=path.length(); i<n; i++)
+		{
+			hash = 31 * hash + normalize(path.charAt(i));
+		}
+		return hash;
 	}
 
-	private String replaceNonAscii(String path)
+	private static String replaceNonAscii(String path)
 	{
 		StringBuilder builder = new StringBuilder();
 		for(int i=0, n=path.length(); i<n; i++)
 		{
 			char c = path.charAt(i);
-			if((c >= '0' && c <= '9')
-				|| (c >= 'a' && c <= 'z')
-				|| (c >= 'A' && c <= 'Z'))
+			builder.append(isAscii(c) ? c : '_');
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Variable that has been indexed via its hash.
+	 */
+	private static class Entry
+	{
+		private final String key;
+		private final Object value;
+		private final boolean normalized;
+
+		public Entry(String key, Object value, boolean normalized)
+		{
+			this.key = key;
+			this.value = value;
+			this.normalized = normalized;
+		}
+
+		/**
+		 * Check if the path is the name of this variable, ignoring case.
+		 *
+		 * @param path
+		 * @return
+		 */
+		public boolean matchesExact(String path)
+		{
+			if(path.length() != key.length())
 			{
-				builder.append(c);
+				return false;
 			}
-			else
+
+			for(int i=0, n=path.length(); i<n; i++)
 			{
-				builder.append('_');
+				if(Character.toUpperCase(path.charAt(i)) != key.charAt(i))
+				{
+					return false;
+				}
 			}
+
+			return true;
 		}
 
-		return builder.toString();
+		/**
+		 * Check if the path matches the name of this variable when it has
+		 * been uppercased and had its non-ASCII characters replaced.
+		 *
+		 * @param path
+		 * @return
+		 */
+		public boolean matchesNormalized(String path)
+		{
+			if(! normalized || path.length() != key.length())
+			{
+				return false;
+			}
+
+			for(int i=0, n=path.length(); i<n; i++)
+			{
+				if(normalize(path.charAt(i)) != key.charAt(i))
+				{
+					return false;
+				}
+			}
+
+			return true;
+		}
 	}
 }
@@ -1,24 +1,42 @@
 package se.l4.exoconf.sources;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.eclipse.collections.api.factory.Maps;
+import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.list.primitive.DoubleList;
+import org.eclipse.collections.api.list.primitive.ImmutableDoubleList;
+import org.eclipse.collections.api.list.primitive.ImmutableLongList;
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.list.primitive.LongList;
+import org.eclipse.collections.api.list.primitive.MutableDoubleList;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
 import org.eclipse.collections.api.map.ImmutableMap;
 import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
 
 import se.l4.exobytes.streaming.StreamingInput;
 import se.l4.exobytes.streaming.Token;
 import se.l4.exoconf.ConfigException;
+import se.l4.exoconf.internal.streaming.AbstractConfigJsonInput;
+import se.l4.exoconf.internal.streaming.ConfigJsonBytesInput;
 import se.l4.exoconf.internal.streaming.ConfigJsonInput;
+import se.l4.exoconf.sources.BlockScanner.Block;
 
 /**
  * Source that provides access to config values read from a file.
@@ -42,28 +60,240 @@ import se.l4.exoconf.internal.streaming.ConfigJsonInput;
  * # Override the width
  * thumbs.small.width: 150
  * </pre>
+ *
+ * <p>
+ * Lists that only contain numbers are also stored as primitive lists, so
+ * they can be read via {@link #getLongList(String)} and
+ * {@link #getDoubleList(String)} without boxing.
  */
 public class FileConfigSource
 	extends MapBasedConfigSource
 {
-	private FileConfigSource(ImmutableMap<String, Object> properties)
+	/**
+	 * Files larger than this are memory-mapped instead of read into memory.
+	 */
+	static final long MAP_THRESHOLD = 1024 * 1024;
+
+	private final ImmutableMap<String, ImmutableLongList> longLists;
+	private final ImmutableMap<String, ImmutableDoubleList> doubleLists;
+
+	FileConfigSource(ImmutableMap<String, Object> properties)
 	{
 		super(properties);
+
+		MutableMap<String, ImmutableLongList> longLists = Maps.mutable.empty();
+		MutableMap<String, ImmutableDoubleList> doubleLists = Maps.mutable.empty();
+		index.forEachPath((path, keys) -> {
+			IntList indexes = index.getIndexes(path);
+			if(indexes.size() != keys.size() || indexes.getLast() != indexes.size() - 1)
+			{
+				// Not a list, or a list with gaps or other keys
+				return;
+			}
+
+			storeNumbers(longLists, doubleLists, path, indexes.size());
+		});
+
+		this.longLists = longLists.toImmutable();
+		this.doubleLists = doubleLists.toImmutable();
 	}
 
+	/**
+	 * Store the list at the given path as primitives if all of its items are
+	 * numbers. The list is kept as integers until the first floating point
+	 * number is seen.
+	 *
+	 * @param longLists
+	 * @param doubleLists
+	 * @param path
+	 * @param size
+	 */
+	private void storeNumbers(
+		MutableMap<String, ImmutableLongList> longLists,
+		MutableMap<String, ImmutableDoubleList> doubleLists,
+		String path,
+		int size
+	)
+	{
+		if(properties.get(path) != null)
+		{
+			return;
+		}
+
+		MutableLongList longs = new LongArrayList(size);
+		MutableDoubleList doubles = null;
+		for(int i=0; i<size; i++)
+		{
+			Object value = properties.get(path + ConfigKeys.PATH_DELIMITER + i);
+			if(doubles == null && value instanceof Long)
+			{
+				longs.add((Long) value);
+			}
+			else if(value instanceof Long || value instanceof Double)
+			{
+				if(doubles == null)
+				{
+					doubles = new DoubleArrayList(size);
+					longs.forEach(doubles::add);
+				}
+
+				doubles.add(((Number) value).doubleValue());
+			}
+			else
+			{
+				return;
+			}
+		}
+
+		if(doubles == null)
+		{
+			longLists.put(path, longs.toImmutable());
+		}
+		else
+		{
+			doubleLists.put(path, doubles.toImmutable());
+		}
+	}
+
+	@Override
+	public LongList getLongList(String path)
+	{
+		return longLists.get(path);
+	}
+
+	@Override
+	public DoubleList getDoubleList(String path)
+	{
+		return doubleLists.get(path);
+	}
+
+	/**
+	 * Read a file. The file is parsed directly from its UTF-8 encoded bytes,
+	 * large files are memory-mapped.
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
 	public static FileConfigSource read(Path path)
 		throws IOException
 	{
-		try(InputStream in = Files.newInputStream(path))
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
 		{
-			return read(in);
+			long size = channel.size();
+			if(size > Integer.MAX_VALUE)
+			{
+				throw new IOException("The file " + path + " is too large to be read");
+			}
+			else if(size > MAP_THRESHOLD)
+			{
+				return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+			}
+		}
+
+		return read(Files.readAllBytes(path));
+	}
+
+	/**
+	 * Read a file, parsing its top-level blocks in parallel using the given
+	 * pool.
+	 *
+	 * @param path
+	 * @param pool
+	 * @return
+	 * @throws IOException
+	 */
+	public static FileConfigSource readParallel(Path path, ForkJoinPool pool)
+		throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			long size = channel.size();
+			if(size > Integer.MAX_VALUE)
+			{
+				throw new IOException("The file " + path + " is too large to be read");
+			}
+			else if(size > MAP_THRESHOLD)
+			{
+				return readParallel(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), pool);
+			}
+		}
+
+		return readParallel(ByteBuffer.wrap(Files.readAllBytes(path)), pool);
+	}
+
+	/**
+	 * Read UTF-8 encoded data from the remaining bytes of a buffer, parsing
+	 * its top-level blocks in parallel using the given pool.
+	 *
+	 * <p>
+	 * The buffer is first scanned to find where every top-level block, such
+	 * as {@code thumbs: { ... }}, starts and ends. Blocks are then parsed
+	 * in groups of similar size and the results are merged in the order the
+	 * blocks appear, so later blocks override earlier ones in the same way
+	 * as when the data is read by {@link #read(ByteBuffer)}.
+	 *
+	 * @param buffer
+	 * @param pool
+	 * @return
+	 * @throws IOException
+	 */
+	public static FileConfigSource readParallel(ByteBuffer buffer, ForkJoinPool pool)
+		throws IOException
+	{
+		if(pool.getParallelism() < 2)
+		{
+			return read(buffer);
+		}
+
+		ImmutableList<Block> blocks = BlockScanner.scan(buffer);
+		if(blocks.size() < 2)
+		{
+			return read(buffer);
+		}
+
+		long threshold = Math.max(1, buffer.remaining() / (pool.getParallelism() * 4L));
+		ParseTask task = new ParseTask(buffer, blocks, 0, blocks.size(), threshold);
+		try
+		{
+			return new FileConfigSource(pool.invoke(task).toImmutable());
+		}
+		catch(UncheckedIOException e)
+		{
+			throw e.getCause();
 		}
 	}
 
 	public static FileConfigSource read(File path)
 		throws IOException
 	{
-		try(InputStream in = new FileInputStream(path))
+		return read(path.toPath());
+	}
+
+	/**
+	 * Read UTF-8 encoded data.
+	 *
+	 * @param data
+	 * @return
+	 * @throws IOException
+	 */
+	public static FileConfigSource read(byte[] data)
+		throws IOException
+	{
+		return read(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Read UTF-8 encoded data from the remaining bytes of a buffer.
+	 *
+	 * @param buffer
+	 * @return
+	 * @throws IOException
+	 */
+	public static FileConfigSource read(ByteBuffer buffer)
+		throws IOException
+	{
+		try(ConfigJsonBytesInput in = new ConfigJsonBytesInput(buffer))
 		{
 			return read(in);
 		}
@@ -96,7 +326,7 @@ public class FileConfigSource
 		}
 	}
 
-	private static FileConfigSource read(ConfigJsonInput in)
+	private static FileConfigSource read(AbstractConfigJsonInput in)
 		throws IOException
 	{
 		MutableMap<String, Object> properties = Maps.mutable.empty();
@@ -106,6 +336,72 @@ public class FileConfigSource
 		return new FileConfigSource(properties.toImmutable());
 	}
 
+	/**
+	 * Task that parses a range of blocks, splitting the range until the
+	 * blocks in it are smaller than a threshold.
+	 */
+	private static class ParseTask
+		extends RecursiveTask<MutableMap<String, Object>>
+	{
+		private final ByteBuffer buffer;
+		private final ImmutableList<Block> blocks;
+		private final int from;
+		private final int to;
+		private final long threshold;
+
+		public ParseTask(
+			ByteBuffer buffer,
+			ImmutableList<Block> blocks,
+			int from,
+			int to,
+			long threshold
+		)
+		{
+			this.buffer = buffer;
+			this.blocks = blocks;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected MutableMap<String, Object> compute()
+		{
+			long size = blocks.get(to - 1).end - blocks.get(from).start;
+			if(to - from > 1 && size > threshold)
+			{
+				int middle = (from + to) >>> 1;
+				ParseTask first = new ParseTask(buffer, blocks, from, middle, threshold);
+				first.fork();
+
+				MutableMap<String, Object> second = new ParseTask(buffer, blocks, middle, to, threshold).compute();
+
+				// Values from later blocks override values from earlier blocks
+				MutableMap<String, Object> result = first.join();
+				result.putAll(second);
+				return result;
+			}
+
+			MutableMap<String, Object> properties = Maps.mutable.empty();
+			try
+			{
+				for(int i=from; i<to; i++)
+				{
+					try(ConfigJsonBytesInput in = new ConfigJsonBytesInput(blocks.get(i).slice(buffer)))
+					{
+						readMap(properties, in, "");
+					}
+				}
+			}
+			catch(IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+
+			return properties;
+		}
+	}
+
 	/**
 	 * Read a single map from the input, optionally while reading object
 	 * start and end tokens.
@@ -0,0 +1,227 @@
+package se.l4.exoconf.sources;
+
+import java.util.Objects;
+import java.util.OptionalInt;
+
+import org.eclipse.collections.api.RichIterable;
+import org.eclipse.collections.api.factory.Maps;
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.list.primitive.DoubleList;
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.list.primitive.LongList;
+import org.eclipse.collections.api.map.ImmutableMap;
+import org.eclipse.collections.api.map.MapIterable;
+import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.api.set.MutableSet;
+import org.eclipse.collections.api.set.SetIterable;
+
+/**
+ * Precomputed view of a {@link MergingConfigSource}. All of the paths that
+ * can be reached via {@link #getKeys(String)} are resolved when the view is
+ * created, so lookups use a single map and a single key index regardless of
+ * how many sources are merged.
+ *
+ * <p>
+ * Paths that were not seen when the view was created, such as differently
+ * cased environment variables, are resolved via the merged sources.
+ *
+ * <p>
+ * Instances are created via {@link MergingConfigSource#flatten()}.
+ */
+public class FlattenedConfigSource
+	implements ConfigSource
+{
+	private final ConfigSource fallback;
+	private final ImmutableMap<String, Entry> entries;
+	private final KeyIndex index;
+	private final MapIterable<String, Object> properties;
+
+	FlattenedConfigSource(
+		ConfigSource fallback,
+		ImmutableMap<String, Entry> entries,
+		MapIterable<String, Object> properties
+	)
+	{
+		this.fallback = fallback;
+		this.entries = entries;
+		this.properties = properties;
+
+		this.index = KeyIndex.create(entries.keysView());
+	}
+
+	@Override
+	public MapIterable<String, Object> getProperties()
+	{
+		return properties;
+	}
+
+	@Override
+	public RichIterable<String> getKeys(String path)
+	{
+		if(entries.containsKey(path))
+		{
+			return index.getKeys(path);
+		}
+
+		return fallback.getKeys(path);
+	}
+
+	@Override
+	public OptionalInt countKeys(String path)
+	{
+		if(entries.containsKey(path))
+		{
+			return OptionalInt.of(index.countKeys(path));
+		}
+
+		return fallback.countKeys(path);
+	}
+
+	@Override
+	public IntList getIndexes(String path)
+	{
+		if(entries.containsKey(path))
+		{
+			return index.getIndexes(path);
+		}
+
+		return fallback.getIndexes(path);
+	}
+
+	@Override
+	public LongList getLongList(String path)
+	{
+		return fallback.getLongList(path);
+	}
+
+	@Override
+	public DoubleList getDoubleList(String path)
+	{
+		return fallback.getDoubleList(path);
+	}
+
+	@Override
+	public Object getValue(String path)
+	{
+		Entry entry = entries.get(path);
+		if(entry != null)
+		{
+			return entry.value;
+		}
+
+		return fallback.getValue(path);
+	}
+
+	/**
+	 * Get the source that provides the value of the given path.
+	 *
+	 * @param path
+	 * @return
+	 *   the source that provided the value, or {@code null} if the value
+	 *   was not resolved when this view was created
+	 */
+	public ConfigSource getSource(String path)
+	{
+		Entry entry = entries.get(path);
+		return entry == null ? null : entry.source;
+	}
+
+	/**
+	 * Get the paths that have a different value in this view compared to
+	 * another view. Paths that are only available in one of the views are
+	 * included.
+	 *
+	 * @param other
+	 * @return
+	 */
+	public SetIterable<String> diff(FlattenedConfigSource other)
+	{
+		MutableSet<String> result = Sets.mutable.empty();
+
+		entries.forEachKeyValue((path, entry) -> {
+			Entry otherEntry = other.entries.get(path);
+			if(otherEntry == null || ! Objects.equals(entry.value, otherEntry.value))
+			{
+				result.add(path);
+			}
+		});
+
+		other.entries.forEachKey(path -> {
+			if(! entries.containsKey(path))
+			{
+				result.add(path);
+			}
+		});
+
+		return result.toImmutable();
+	}
+
+	/**
+	 * Resolve all of the paths available in the given sources.
+	 *
+	 * @param fallback
+	 *   the source to use for paths that are not resolved
+	 * @param sources
+	 *   the sources in order of priority
+	 * @return
+	 */
+	static FlattenedConfigSource create(ConfigSource fallback, ConfigSource[] sources)
+	{
+		MutableMap<String, Entry> entries = Maps.mutable.empty();
+		resolve(entries, sources, "");
+
+		return new FlattenedConfigSource(
+			fallback,
+			entries.toImmutable(),
+			fallback.getProperties().toImmutable()
+		);
+	}
+
+	private static void resolve(MutableMap<String, Entry> entries, ConfigSource[] sources, String path)
+	{
+		entries.put(path, resolveEntry(sources, path));
+
+		for(ConfigSource source : sources)
+		{
+			for(String key : source.getKeys(path))
+			{
+				String childPath = path.isEmpty() ? key : path + ConfigKeys.PATH_DELIMITER + key;
+				if(! entries.containsKey(childPath))
+				{
+					resolve(entries, sources, childPath);
+				}
+			}
+		}
+	}
+
+	private static Entry resolveEntry(ConfigSource[] sources, String path)
+	{
+		for(ConfigSource source : sources)
+		{
+			Object value = source.getValue(path);
+			if(value != null)
+			{
+				return new Entry(value, source);
+			}
+		}
+
+		return Entry.EMPTY;
+	}
+
+	/**
+	 * Resolved value together with the source it was found in.
+	 */
+	static class Entry
+	{
+		static final Entry EMPTY = new Entry(null, null);
+
+		final Object value;
+		final ConfigSource source;
+
+		Entry(Object value, ConfigSource source)
+		{
+			this.value = value;
+			this.source = source;
+		}
+	}
+}
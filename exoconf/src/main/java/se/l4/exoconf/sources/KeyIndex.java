@@ -0,0 +1,148 @@
+package se.l4.exoconf.sources;
+
+import org.eclipse.collections.api.RichIterable;
+import org.eclipse.collections.api.block.procedure.Procedure2;
+import org.eclipse.collections.api.factory.Maps;
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.list.primitive.ImmutableIntList;
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.map.ImmutableMap;
+import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.api.set.ImmutableSet;
+import org.eclipse.collections.api.set.MutableSet;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+
+/**
+ * Index over a set of flattened keys that maps every path to the keys that
+ * are directly below it. This is the flattened form of a segment trie and is
+ * used by sources to answer {@link ConfigSource#getKeys(String)} in time
+ * proportional to the number of children instead of the number of keys.
+ *
+ * <p>
+ * Paths that have list indexes directly below them also have those indexes
+ * stored in ascending order, so lists can be read without parsing and
+ * sorting their keys.
+ */
+class KeyIndex
+{
+	private final ImmutableMap<String, ImmutableSet<String>> children;
+	private final ImmutableMap<String, ImmutableIntList> indexes;
+
+	private KeyIndex(
+		ImmutableMap<String, ImmutableSet<String>> children,
+		ImmutableMap<String, ImmutableIntList> indexes
+	)
+	{
+		this.children = children;
+		this.indexes = indexes;
+	}
+
+	/**
+	 * Get the keys directly under the given path.
+	 *
+	 * @param path
+	 * @return
+	 */
+	public RichIterable<String> getKeys(String path)
+	{
+		ImmutableSet<String> result = children.get(path);
+		return result == null ? Sets.immutable.empty() : result;
+	}
+
+	/**
+	 * Get the number of keys directly under the given path.
+	 *
+	 * @param path
+	 * @return
+	 */
+	public int countKeys(String path)
+	{
+		ImmutableSet<String> result = children.get(path);
+		return result == null ? 0 : result.size();
+	}
+
+	/**
+	 * Get the list indexes directly under the given path.
+	 *
+	 * @param path
+	 * @return
+	 */
+	public IntList getIndexes(String path)
+	{
+		ImmutableIntList result = indexes.get(path);
+		return result == null ? IntLists.immutable.empty() : result;
+	}
+
+	/**
+	 * Run the given procedure for every path that has keys directly under
+	 * it.
+	 *
+	 * @param procedure
+	 */
+	public void forEachPath(Procedure2<String, RichIterable<String>> procedure)
+	{
+		children.forEachKeyValue(procedure::value);
+	}
+
+	/**
+	 * Create an index for the given keys.
+	 *
+	 * @param keys
+	 * @return
+	 */
+	public static KeyIndex create(Iterable<String> keys)
+	{
+		MutableMap<String, MutableSet<String>> children = Maps.mutable.empty();
+		for(String key : keys)
+		{
+			add(children, key);
+		}
+
+		MutableMap<String, ImmutableIntList> indexes = Maps.mutable.empty();
+		children.forEachKeyValue((path, names) -> {
+			ImmutableIntList list = ConfigKeys.toIndexes(names.iterator());
+			if(! list.isEmpty())
+			{
+				indexes.put(path, list);
+			}
+		});
+
+		return new KeyIndex(
+			children.collectValues((k, v) -> v.toImmutable()).toImmutable(),
+			indexes.toImmutable()
+		);
+	}
+
+	/**
+	 * Register all the parent and child pairs of a single key. Every
+	 * delimiter in the key splits it into a parent and the segment that
+	 * follows it, the first segment is registered under the empty root path.
+	 *
+	 * @param children
+	 * @param key
+	 */
+	private static void add(MutableMap<String, MutableSet<String>> children, String key)
+	{
+		int start = 0;
+		String parent = "";
+		while(true)
+		{
+			int idx = key.indexOf(ConfigKeys.PATH_DELIMITER, start);
+			int end = idx >= 0 ? idx : key.length();
+
+			if(end > start)
+			{
+				children.getIfAbsentPut(parent, Sets.mutable::empty)
+					.add(key.substring(start, end));
+			}
+
+			if(idx < 0)
+			{
+				return;
+			}
+
+			parent = key.substring(0, idx);
+			start = idx + 1;
+		}
+	}
+}
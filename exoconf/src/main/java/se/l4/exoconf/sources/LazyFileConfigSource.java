@@ -0,0 +1,249 @@
+package se.l4.exoconf.sources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.collections.api.RichIterable;
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.factory.Maps;
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.list.primitive.DoubleList;
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.list.primitive.LongList;
+import org.eclipse.collections.api.map.ImmutableMap;
+import org.eclipse.collections.api.map.MapIterable;
+import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.api.set.ImmutableSet;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+
+import se.l4.exoconf.ConfigException;
+import se.l4.exoconf.sources.BlockScanner.Block;
+
+/**
+ * Source that reads a config file in the same format as
+ * {@link FileConfigSource}, but only parses the parts of it that are used.
+ *
+ * <p>
+ * When the source is created the file is scanned once to record where every
+ * top-level block starts and ends. Blocks are grouped into sections by the
+ * first segment of their key, so {@code thumbs: { ... }} and
+ * {@code thumbs.small.width: 150} both belong to the section {@code thumbs}.
+ * A section is parsed the first time a path within it is requested, its
+ * blocks are parsed in the order they appear in the file so later blocks
+ * override earlier ones.
+ */
+public class LazyFileConfigSource
+	implements ConfigSource
+{
+	private final ByteBuffer buffer;
+	private final ImmutableMap<String, ImmutableList<Block>> blocks;
+	private final ImmutableSet<String> names;
+	private final ConcurrentHashMap<String, FileConfigSource> sections;
+
+	private LazyFileConfigSource(ByteBuffer buffer, ImmutableMap<String, ImmutableList<Block>> blocks)
+	{
+		this.buffer = buffer;
+		this.blocks = blocks;
+
+		names = Sets.immutable.withAll(blocks.keysView());
+		sections = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Open a file. Large files are memory-mapped.
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static LazyFileConfigSource read(Path path)
+		throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			long size = channel.size();
+			if(size > Integer.MAX_VALUE)
+			{
+				throw new IOException("The file " + path + " is too large to be read");
+			}
+			else if(size > FileConfigSource.MAP_THRESHOLD)
+			{
+				return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+			}
+		}
+
+		return read(ByteBuffer.wrap(Files.readAllBytes(path)));
+	}
+
+	/**
+	 * Read UTF-8 encoded data from the remaining bytes of a buffer. The
+	 * buffer is kept and must not be modified.
+	 *
+	 * @param buffer
+	 * @return
+	 * @throws IOException
+	 */
+	public static LazyFileConfigSource read(ByteBuffer buffer)
+		throws IOException
+	{
+		MutableMap<String, MutableList<Block>> blocks = Maps.mutable.empty();
+		for(Block block : BlockScanner.scan(buffer))
+		{
+			blocks.getIfAbsentPut(sectionOf(block.key), Lists.mutable::empty).add(block);
+		}
+
+		return new LazyFileConfigSource(
+			buffer,
+			blocks.collectValues((k, v) -> v.toImmutable()).toImmutable()
+		);
+	}
+
+	/**
+	 * Get the name of the section that the given path belongs to.
+	 *
+	 * @param path
+	 * @return
+	 */
+	private static String sectionOf(String path)
+	{
+		int idx = path.indexOf(ConfigKeys.PATH_DELIMITER);
+		return idx < 0 ? path : path.substring(0, idx);
+	}
+
+	/**
+	 * Get the parsed section for the given path, parsing it if this is the
+	 * first time the section is used.
+	 *
+	 * @param path
+	 * @return
+	 *   the section, or {@code null} if the file has nothing at the path
+	 */
+	private ConfigSource section(String path)
+	{
+		String name = sectionOf(path);
+
+		FileConfigSource section = sections.get(name);
+		if(section != null)
+		{
+			return section;
+		}
+
+		ImmutableList<Block> sectionBlocks = blocks.get(name);
+		if(sectionBlocks == null)
+		{
+			return null;
+		}
+
+		return sections.computeIfAbsent(name, k -> parse(sectionBlocks));
+	}
+
+	/**
+	 * Parse the blocks of a section.
+	 *
+	 * @param sectionBlocks
+	 * @return
+	 */
+	private FileConfigSource parse(ImmutableList<Block> sectionBlocks)
+	{
+		try
+		{
+			if(sectionBlocks.size() == 1)
+			{
+				return FileConfigSource.read(sectionBlocks.getFirst().slice(buffer));
+			}
+
+			MutableMap<String, Object> properties = Maps.mutable.empty();
+			for(Block block : sectionBlocks)
+			{
+				FileConfigSource.read(block.slice(buffer))
+					.getProperties()
+					.forEachKeyValue(properties::put);
+			}
+
+			return new FileConfigSource(properties.toImmutable());
+		}
+		catch(IOException e)
+		{
+			throw new ConfigException("Unable to read file; " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Get all of the properties of the file, this parses every section.
+	 */
+	@Override
+	public MapIterable<String, Object> getProperties()
+	{
+		MutableMap<String, Object> result = Maps.mutable.empty();
+		for(String name : names)
+		{
+			section(name).getProperties().forEachKeyValue(result::put);
+		}
+		return result.toImmutable();
+	}
+
+	@Override
+	public RichIterable<String> getKeys(String path)
+	{
+		if(path.isEmpty())
+		{
+			return names;
+		}
+
+		ConfigSource section = section(path);
+		return section == null ? Sets.immutable.empty() : section.getKeys(path);
+	}
+
+	@Override
+	public OptionalInt countKeys(String path)
+	{
+		if(path.isEmpty())
+		{
+			return OptionalInt.of(names.size());
+		}
+
+		ConfigSource section = section(path);
+		return section == null ? OptionalInt.of(0) : section.countKeys(path);
+	}
+
+	@Override
+	public IntList getIndexes(String path)
+	{
+		if(path.isEmpty())
+		{
+			return ConfigSource.super.getIndexes(path);
+		}
+
+		ConfigSource section = section(path);
+		return section == null ? IntLists.immutable.empty() : section.getIndexes(path);
+	}
+
+	@Override
+	public LongList getLongList(String path)
+	{
+		ConfigSource section = path.isEmpty() ? null : section(path);
+		return section == null ? null : section.getLongList(path);
+	}
+
+	@Override
+	public DoubleList getDoubleList(String path)
+	{
+		ConfigSource section = path.isEmpty() ? null : section(path);
+		return section == null ? null : section.getDoubleList(path);
+	}
+
+	@Override
+	public Object getValue(String path)
+	{
+		ConfigSource section = path.isEmpty() ? null : section(path);
+		return section == null ? null : section.getValue(path);
+	}
+}
@@ -1,6 +1,9 @@
 package se.l4.exoconf.sources;
 
+import java.util.OptionalInt;
+
 import org.eclipse.collections.api.RichIterable;
+import org.eclipse.collections.api.list.primitive.IntList;
 import org.eclipse.collections.api.map.ImmutableMap;
 import org.eclipse.collections.api.map.MapIterable;
 
@@ -13,15 +16,21 @@ import org.eclipse.collections.api.map.MapIterable;
  * {@link ConfigSource#PATH_DELIMITER}. It is possible to override
  * {@link #getKeys(String)} and {@link #getValue(String)} to provide custom
  * behavior for sources where this isn't true, such as for {@link EnvironmentConfigSource}.
+ *
+ * <p>
+ * The keys are indexed when the source is created, so the properties are
+ * expected to not change after they have been passed to this source.
  */
 public class MapBasedConfigSource
 	implements ConfigSource
 {
 	protected final MapIterable<String, Object> properties;
+	final KeyIndex index;
 
 	public MapBasedConfigSource(MapIterable<String, Object> properties)
 	{
 		this.properties = properties;
+		this.index = KeyIndex.create(properties.keysView());
 	}
 
 	@Override
@@ -33,15 +42,19 @@ public class MapBasedConfigSource
 	@Override
 	public RichIterable<String> getKeys(String path)
 	{
-		String prefix = path.isEmpty() ? path : path + ConfigKeys.PATH_DELIMITER;
-		int length = prefix.length();
-		return properties.keysView().asLazy()
-			.selectWith(String::startsWith, prefix)
-			.collect(key -> {
-				int idx = key.indexOf(ConfigKeys.PATH_DELIMITER, length);
-				return idx >= 0 ? key.substring(length, idx) : key.substring(length);
-			})
-			.distinct();
+		return index.getKeys(path);
+	}
+
+	@Override
+	public OptionalInt countKeys(String path)
+	{
+		return OptionalInt.of(index.countKeys(path));
+	}
+
+	@Override
+	public IntList getIndexes(String path)
+	{
+		return index.getIndexes(path);
 	}
 
 	@Override
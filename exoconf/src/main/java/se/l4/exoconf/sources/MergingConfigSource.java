@@ -1,13 +1,23 @@
 package se.l4.exoconf.sources;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
 import java.util.stream.StreamSupport;
 
 import org.eclipse.collections.api.RichIterable;
 import org.eclipse.collections.api.factory.Maps;
 import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.list.primitive.DoubleList;
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.list.primitive.LongList;
 import org.eclipse.collections.api.map.ImmutableMap;
 import org.eclipse.collections.api.map.MutableMap;
 import org.eclipse.collections.api.set.MutableSet;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.eclipse.collections.impl.factory.primitive.IntSets;
+import org.eclipse.collections.impl.list.primitive.IntInterval;
 
 /**
  * Implementation of {@link ConfigSource} that merges configuration in order
@@ -24,6 +34,18 @@ public class MergingConfigSource
 			.toArray(ConfigSource[]::new);
 	}
 
+	/**
+	 * Create a precomputed view of this source. The view resolves all
+	 * available paths up front and is intended for sources that do not
+	 * change.
+	 *
+	 * @return
+	 */
+	public FlattenedConfigSource flatten()
+	{
+		return FlattenedConfigSource.create(this, sources);
+	}
+
 	@Override
 	public ImmutableMap<String, Object> getProperties()
 	{
@@ -46,6 +68,136 @@ public class MergingConfigSource
 		return keys;
 	}
 
+	/**
+	 * Iterate over the keys directly under the given path without collecting
+	 * them first. Keys are taken from one source at a time and keys that an
+	 * earlier source already returned are skipped.
+	 */
+	@Override
+	public Iterator<String> iterateKeys(String path)
+	{
+		return new KeyIterator(path);
+	}
+
+	/**
+	 * Count keys by asking the source directly if there is only one. Keys
+	 * of several sources overlap and can only be counted by iterating, so
+	 * in that case no count is returned.
+	 */
+	@Override
+	public OptionalInt countKeys(String path)
+	{
+		if(sources.length == 1)
+		{
+			return sources[0].countKeys(path);
+		}
+
+		return OptionalInt.empty();
+	}
+
+	/**
+	 * Get the indexes of a list by combining the indexes of all sources, so
+	 * that a source can override or add individual items of a list defined
+	 * in another source.
+	 */
+	@Override
+	public IntList getIndexes(String path)
+	{
+		IntList result = null;
+		MutableIntSet union = null;
+		for(ConfigSource source : sources)
+		{
+			IntList indexes = source.getIndexes(path);
+			if(indexes.isEmpty())
+			{
+				continue;
+			}
+
+			if(result == null)
+			{
+				result = indexes;
+			}
+			else if(! covers(result, indexes))
+			{
+				if(union == null)
+				{
+					union = IntSets.mutable.withAll(result);
+				}
+
+				union.addAll(indexes);
+			}
+		}
+
+		if(union != null)
+		{
+			int max = union.max();
+			return union.size() == max + 1
+				? IntInterval.zeroTo(max)
+				: union.toSortedList();
+		}
+
+		return result == null ? IntLists.immutable.empty() : result;
+	}
+
+	/**
+	 * Check if the sorted list of indexes {@code a} contains all of the
+	 * indexes in {@code b} without looking at every index. Only lists
+	 * without gaps are checked, which is the case when a list in one source
+	 * has some of its items overridden in another.
+	 *
+	 * @param a
+	 * @param b
+	 * @return
+	 */
+	private static boolean covers(IntList a, IntList b)
+	{
+		int max = a.getLast();
+		return max == a.size() - 1 && b.getLast() <= max;
+	}
+
+	@Override
+	public LongList getLongList(String path)
+	{
+		ConfigSource source = findOnlySource(path);
+		return source == null ? null : source.getLongList(path);
+	}
+
+	@Override
+	public DoubleList getDoubleList(String path)
+	{
+		ConfigSource source = findOnlySource(path);
+		return source == null ? null : source.getDoubleList(path);
+	}
+
+	/**
+	 * Find the only source that has anything at the given path. Primitive
+	 * lists can only be used as is when no other source overrides any of
+	 * their items.
+	 *
+	 * @param path
+	 * @return
+	 *   the source, or {@code null} if several or no sources have data at
+	 *   the path
+	 */
+	private ConfigSource findOnlySource(String path)
+	{
+		ConfigSource result = null;
+		for(ConfigSource source : sources)
+		{
+			if(source.getValue(path) != null || source.iterateKeys(path).hasNext())
+			{
+				if(result != null)
+				{
+					return null;
+				}
+
+				result = source;
+			}
+		}
+
+		return result;
+	}
+
 	@Override
 	public Object getValue(String path)
 	{
@@ -60,4 +212,90 @@ public class MergingConfigSource
 
 		return null;
 	}
+
+	private class KeyIterator
+		implements Iterator<String>
+	{
+		private final String path;
+		private final RichIterable<?>[] seen;
+
+		private int index;
+		private Iterator<String> current;
+		private String next;
+
+		public KeyIterator(String path)
+		{
+			this.path = path;
+
+			seen = new RichIterable<?>[sources.length];
+			index = -1;
+
+			advance();
+		}
+
+		private void advance()
+		{
+			while(true)
+			{
+				if(current != null)
+				{
+					while(current.hasNext())
+					{
+						String key = current.next();
+						if(! seenBefore(key))
+						{
+							next = key;
+							return;
+						}
+					}
+				}
+
+				index++;
+				if(index >= sources.length)
+				{
+					next = null;
+					return;
+				}
+
+				current = sources[index].iterateKeys(path);
+			}
+		}
+
+		private boolean seenBefore(String key)
+		{
+			for(int i=0; i<index; i++)
+			{
+				if(seen[i] == null)
+				{
+					seen[i] = sources[i].getKeys(path);
+				}
+
+				if(seen[i].contains(key))
+				{
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return next != null;
+		}
+
+		@Override
+		public String next()
+		{
+			if(next == null)
+			{
+				throw new NoSuchElementException();
+			}
+
+			String result = next;
+			advance();
+			return result;
+		}
+	}
 }
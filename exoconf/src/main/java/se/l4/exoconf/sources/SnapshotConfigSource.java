@@ -0,0 +1,586 @@
+package se.l4.exoconf.sources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.OptionalInt;
+import java.util.zip.CRC32C;
+
+import org.eclipse.collections.api.RichIterable;
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.factory.Maps;
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.map.MapIterable;
+import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
+import org.eclipse.collections.impl.factory.primitive.ObjectIntMaps;
+
+/**
+ * Source backed by a binary snapshot of the properties of another source.
+ * Snapshots are memory-mapped and values are only decoded when they are
+ * requested, which makes opening a snapshot independent of how many
+ * properties it contains.
+ *
+ * <p>
+ * A snapshot contains a header describing the file it was created from and
+ * a checksum of the rest of the snapshot, followed by:
+ * <ul>
+ *   <li>a string table with the offset and length of every string</li>
+ *   <li>the entries, sorted by key, with the type and value of every property</li>
+ *   <li>the nodes, sorted by path, with the keys directly under every path</li>
+ *   <li>the UTF-8 encoded string data</li>
+ * </ul>
+ *
+ * <p>
+ * Snapshots are created via {@link #write(Path, MapIterable, long, long, int)}
+ * and opened via {@link #open(Path)}.
+ */
+public class SnapshotConfigSource
+	implements ConfigSource
+{
+	private static final int MAGIC = 0x45584F43;
+	private static final int VERSION = 2;
+
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 4 + 4 + 4 + 4;
+	private static final int STRING_SIZE = 4 + 4;
+	private static final int ENTRY_SIZE = 4 + 1 + 8;
+	private static final int NODE_SIZE = 4 + 4 + 4;
+
+	private static final byte TYPE_NULL = 0;
+	private static final byte TYPE_STRING = 1;
+	private static final byte TYPE_LONG = 2;
+	private static final byte TYPE_DOUBLE = 3;
+	private static final byte TYPE_BOOLEAN = 4;
+
+	private static final Object NULL = new Object();
+
+	private static final Comparator<byte[]> UTF8_ORDER = SnapshotConfigSource::compare;
+
+	private final ByteBuffer buffer;
+
+	private final long sourceSize;
+	private final long sourceModified;
+	private final int sourceChecksum;
+
+	private final int entryCount;
+	private final int nodeCount;
+
+	private final int stringsOffset;
+	private final int entriesOffset;
+	private final int nodesOffset;
+	private final int childrenOffset;
+	private final int dataOffset;
+
+	private final Object[] values;
+	private final RichIterable<String>[] children;
+
+	private volatile MapIterable<String, Object> properties;
+
+	@SuppressWarnings("unchecked")
+	private SnapshotConfigSource(ByteBuffer buffer)
+		throws IOException
+	{
+		this.buffer = buffer;
+
+		if(buffer.limit() < HEADER_SIZE
+			|| buffer.getInt(0) != MAGIC
+			|| buffer.getInt(4) != VERSION)
+		{
+			throw new IOException("Not a snapshot or snapshot of unsupported version");
+		}
+
+		sourceSize = buffer.getLong(8);
+		sourceModified = buffer.getLong(16);
+		sourceChecksum = buffer.getInt(24);
+
+		int stringCount = buffer.getInt(28);
+		entryCount = buffer.getInt(32);
+		nodeCount = buffer.getInt(36);
+		int childCount = buffer.getInt(40);
+		int bodyChecksum = buffer.getInt(44);
+
+		stringsOffset = HEADER_SIZE;
+		entriesOffset = stringsOffset + stringCount * STRING_SIZE;
+		nodesOffset = entriesOffset + entryCount * ENTRY_SIZE;
+		childrenOffset = nodesOffset + nodeCount * NODE_SIZE;
+		dataOffset = childrenOffset + childCount * 4;
+
+		if(stringCount < 0 || entryCount < 0 || nodeCount < 0 || childCount < 0
+			|| dataOffset > buffer.limit())
+		{
+			throw new IOException("Snapshot is truncated");
+		}
+
+		ByteBuffer body = buffer.duplicate();
+		body.position(HEADER_SIZE);
+		if(checksum(body) != bodyChecksum)
+		{
+			throw new IOException("Snapshot is corrupt, checksum does not match");
+		}
+
+		values = new Object[entryCount];
+		children = new RichIterable[nodeCount];
+	}
+
+	/**
+	 * Get the size of the file this snapshot was created from.
+	 *
+	 * @return
+	 */
+	public long getSourceSize()
+	{
+		return sourceSize;
+	}
+
+	/**
+	 * Get the last modification time, in milliseconds, of the file this
+	 * snapshot was created from.
+	 *
+	 * @return
+	 */
+	public long getSourceModified()
+	{
+		return sourceModified;
+	}
+
+	/**
+	 * Get the CRC32C checksum of the file this snapshot was created from.
+	 *
+	 * @return
+	 */
+	public int getSourceChecksum()
+	{
+		return sourceChecksum;
+	}
+
+	@Override
+	public MapIterable<String, Object> getProperties()
+	{
+		MapIterable<String, Object> result = properties;
+		if(result == null)
+		{
+			MutableMap<String, Object> map = Maps.mutable.ofInitialCapacity(entryCount);
+			for(int i=0; i<entryCount; i++)
+			{
+				map.put(readString(buffer.getInt(entriesOffset + i * ENTRY_SIZE)), value(i));
+			}
+
+			result = properties = map.toImmutable();
+		}
+
+		return result;
+	}
+
+	@Override
+	public RichIterable<String> getKeys(String path)
+	{
+		int node = find(nodesOffset, NODE_SIZE, nodeCount, path.getBytes(StandardCharsets.UTF_8));
+		if(node < 0)
+		{
+			return Sets.immutable.empty();
+		}
+
+		RichIterable<String> result = children[node];
+		if(result == null)
+		{
+			int offset = nodesOffset + node * NODE_SIZE;
+			int start = buffer.getInt(offset + 4);
+			int count = buffer.getInt(offset + 8);
+
+			String[] names = new String[count];
+			for(int i=0; i<count; i++)
+			{
+				names[i] = readString(buffer.getInt(childrenOffset + (start + i) * 4));
+			}
+
+			result = children[node] = Sets.immutable.with(names);
+		}
+
+		return result;
+	}
+
+	@Override
+	public OptionalInt countKeys(String path)
+	{
+		int node = find(nodesOffset, NODE_SIZE, nodeCount, path.getBytes(StandardCharsets.UTF_8));
+		if(node < 0)
+		{
+			return OptionalInt.of(0);
+		}
+
+		return OptionalInt.of(buffer.getInt(nodesOffset + node * NODE_SIZE + 8));
+	}
+
+	@Override
+	public Object getValue(String path)
+	{
+		int entry = find(entriesOffset, ENTRY_SIZE, entryCount, path.getBytes(StandardCharsets.UTF_8));
+		return entry < 0 ? null : value(entry);
+	}
+
+	/**
+	 * Get the value of an entry, decoding it if it has not been requested
+	 * before.
+	 *
+	 * @param entry
+	 * @return
+	 */
+	private Object value(int entry)
+	{
+		Object cached = values[entry];
+		if(cached == null)
+		{
+			cached = values[entry] = decodeValue(entriesOffset + entry * ENTRY_SIZE);
+		}
+
+		return cached == NULL ? null : cached;
+	}
+
+	private Object decodeValue(int offset)
+	{
+		byte type = buffer.get(offset + 4);
+		long raw = buffer.getLong(offset + 5);
+		switch(type)
+		{
+			case TYPE_STRING:
+				return readString((int) raw);
+			case TYPE_LONG:
+				return raw;
+			case TYPE_DOUBLE:
+				return Double.longBitsToDouble(raw);
+			case TYPE_BOOLEAN:
+				return raw != 0;
+			default:
+				return NULL;
+		}
+	}
+
+	/**
+	 * Binary search a table sorted by the string its records start with.
+	 *
+	 * @param tableOffset
+	 * @param recordSize
+	 * @param count
+	 * @param key
+	 * @return
+	 *   index of the record or {@code -1} if not found
+	 */
+	private int find(int tableOffset, int recordSize, int count, byte[] key)
+	{
+		int low = 0;
+		int high = count - 1;
+		while(low <= high)
+		{
+			int mid = (low + high) >>> 1;
+			int cmp = compareString(buffer.getInt(tableOffset + mid * recordSize), key);
+			if(cmp < 0)
+			{
+				low = mid + 1;
+			}
+			else if(cmp > 0)
+			{
+				high = mid - 1;
+			}
+			else
+			{
+				return mid;
+			}
+		}
+
+		return -1;
+	}
+
+	private int compareString(int string, byte[] key)
+	{
+		int offset = dataOffset + buffer.getInt(stringsOffset + string * STRING_SIZE);
+		int length = buffer.getInt(stringsOffset + string * STRING_SIZE + 4);
+
+		int n = Math.min(length, key.length);
+		for(int i=0; i<n; i++)
+		{
+			int cmp = (buffer.get(offset + i) & 0xff) - (key[i] & 0xff);
+			if(cmp != 0)
+			{
+				return cmp;
+			}
+		}
+
+		return length - key.length;
+	}
+
+	private String readString(int string)
+	{
+		int offset = dataOffset + buffer.getInt(stringsOffset + string * STRING_SIZE);
+		int length = buffer.getInt(stringsOffset + string * STRING_SIZE + 4);
+
+		byte[] data = new byte[length];
+		for(int i=0; i<length; i++)
+		{
+			data[i] = buffer.get(offset + i);
+		}
+
+		return new String(data, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Open a snapshot. The snapshot is memory-mapped and verified against
+	 * its checksum, values are decoded when requested.
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 *   if the file can not be read or is not a valid snapshot
+	 */
+	public static SnapshotConfigSource open(Path path)
+		throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			long size = channel.size();
+			if(size > Integer.MAX_VALUE)
+			{
+				throw new IOException("Snapshot " + path + " is too large");
+			}
+
+			return new SnapshotConfigSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+		}
+	}
+
+	/**
+	 * Write a snapshot of the given properties. The snapshot is written to a
+	 * unique temporary file that replaces the target when complete, so a
+	 * snapshot that is being written is never opened and several writers
+	 * never write to the same file.
+	 *
+	 * @param path
+	 *   the file to write to
+	 * @param properties
+	 *   the properties, values must be {@link String}, {@link Long},
+	 *   {@link Double}, {@link Boolean} or {@code null}
+	 * @param sourceSize
+	 *   size of the file the properties were read from
+	 * @param sourceModified
+	 *   last modification time of the file the properties were read from
+	 * @param sourceChecksum
+	 *   CRC32C checksum of the file the properties were read from
+	 * @throws IOException
+	 */
+	public static void write(
+		Path path,
+		MapIterable<String, Object> properties,
+		long sourceSize,
+		long sourceModified,
+		int sourceChecksum
+	)
+		throws IOException
+	{
+		StringTable strings = new StringTable();
+
+		// Entries sorted by the UTF-8 bytes of their key
+		byte[][] keys = properties.keysView()
+			.collect(k -> k.getBytes(StandardCharsets.UTF_8))
+			.toArray(new byte[0][]);
+		Arrays.sort(keys, UTF8_ORDER);
+
+		// Nodes sorted by the UTF-8 bytes of their path
+		MutableMap<String, RichIterable<String>> nodeMap = Maps.mutable.empty();
+		KeyIndex.create(properties.keysView()).forEachPath(nodeMap::put);
+
+		byte[][] nodes = nodeMap.keysView()
+			.collect(k -> k.getBytes(StandardCharsets.UTF_8))
+			.toArray(new byte[0][]);
+		Arrays.sort(nodes, UTF8_ORDER);
+
+		ByteBuffer entryTable = ByteBuffer.allocate(keys.length * ENTRY_SIZE);
+		for(byte[] key : keys)
+		{
+			Object value = properties.get(new String(key, StandardCharsets.UTF_8));
+
+			entryTable.putInt(strings.add(key));
+			if(value == null)
+			{
+				entryTable.put(TYPE_NULL).putLong(0);
+			}
+			else if(value instanceof String)
+			{
+				entryTable.put(TYPE_STRING).putLong(strings.add(((String) value).getBytes(StandardCharsets.UTF_8)));
+			}
+			else if(value instanceof Boolean)
+			{
+				entryTable.put(TYPE_BOOLEAN).putLong((Boolean) value ? 1 : 0);
+			}
+			else if(value instanceof Double || value instanceof Float)
+			{
+				entryTable.put(TYPE_DOUBLE).putLong(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+			}
+			else if(value instanceof Number)
+			{
+				entryTable.put(TYPE_LONG).putLong(((Number) value).longValue());
+			}
+			else
+			{
+				throw new IOException("Unsupported value for snapshot: " + value.getClass());
+			}
+		}
+
+		ByteBuffer nodeTable = ByteBuffer.allocate(nodes.length * NODE_SIZE);
+		MutableList<byte[]> childNames = Lists.mutable.empty();
+		for(byte[] node : nodes)
+		{
+			RichIterable<String> names = nodeMap.get(new String(node, StandardCharsets.UTF_8));
+
+			nodeTable.putInt(strings.add(node))
+				.putInt(childNames.size())
+				.putInt(names.size());
+
+			names.forEach(name -> childNames.add(name.getBytes(StandardCharsets.UTF_8)));
+		}
+
+		ByteBuffer childTable = ByteBuffer.allocate(childNames.size() * 4);
+		for(byte[] name : childNames)
+		{
+			childTable.putInt(strings.add(name));
+		}
+
+		ByteBuffer[] body = {
+			strings.table(),
+			entryTable,
+			nodeTable,
+			childTable,
+			strings.data()
+		};
+
+		CRC32C crc = new CRC32C();
+		for(ByteBuffer part : body)
+		{
+			part.flip();
+			crc.update(part.duplicate());
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+			.putInt(MAGIC)
+			.putInt(VERSION)
+			.putLong(sourceSize)
+			.putLong(sourceModified)
+			.putInt(sourceChecksum)
+			.putInt(strings.size())
+			.putInt(keys.length)
+			.putInt(nodes.length)
+			.putInt(childNames.size())
+			.putInt((int) crc.getValue());
+		header.flip();
+
+		Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+		try
+		{
+			try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE))
+			{
+				writeFully(channel, header);
+				for(ByteBuffer part : body)
+				{
+					writeFully(channel, part);
+				}
+			}
+
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer)
+		throws IOException
+	{
+		while(buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+	}
+
+	private static int checksum(ByteBuffer buffer)
+	{
+		CRC32C crc = new CRC32C();
+		crc.update(buffer);
+		return (int) crc.getValue();
+	}
+
+	private static int compare(byte[] a, byte[] b)
+	{
+		int n = Math.min(a.length, b.length);
+		for(int i=0; i<n; i++)
+		{
+			int cmp = (a[i] & 0xff) - (b[i] & 0xff);
+			if(cmp != 0)
+			{
+				return cmp;
+			}
+		}
+
+		return a.length - b.length;
+	}
+
+	/**
+	 * Table of unique strings used when writing a snapshot.
+	 */
+	private static class StringTable
+	{
+		private final MutableObjectIntMap<String> indexes;
+		private final MutableList<byte[]> strings;
+		private int dataSize;
+
+		public StringTable()
+		{
+			indexes = ObjectIntMaps.mutable.empty();
+			strings = Lists.mutable.empty();
+		}
+
+		public int add(byte[] data)
+		{
+			// Latin-1 maps every byte to a single char, making it a lossless key for the bytes
+			return indexes.getIfAbsentPut(new String(data, StandardCharsets.ISO_8859_1), () -> {
+				strings.add(data);
+				dataSize += data.length;
+				return strings.size() - 1;
+			});
+		}
+
+		public int size()
+		{
+			return strings.size();
+		}
+
+		public ByteBuffer table()
+		{
+			ByteBuffer result = ByteBuffer.allocate(strings.size() * STRING_SIZE);
+			int offset = 0;
+			for(byte[] data : strings)
+			{
+				result.putInt(offset).putInt(data.length);
+				offset += data.length;
+			}
+
+			return result;
+		}
+
+		public ByteBuffer data()
+		{
+			ByteBuffer result = ByteBuffer.allocate(dataSize);
+			for(byte[] data : strings)
+			{
+				result.put(data);
+			}
+
+			return result;
+		}
+	}
+}
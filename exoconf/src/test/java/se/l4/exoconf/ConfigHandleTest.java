@@ -0,0 +1,154 @@
+package se.l4.exoconf;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+public class ConfigHandleTest
+{
+	@Test
+	public void testHandle()
+	{
+		Config config = Config.create()
+			.addStream(stream("medium: { width: 100, height: 100 }"))
+			.build();
+
+		ConfigHandle<Integer> handle = config.handle("medium.width", Integer.class);
+		assertThat(handle.getPath(), is("medium.width"));
+		assertThat(handle.get(), is(Optional.of(100)));
+		assertThat(handle.getOrDefault(10), is(100));
+	}
+
+	@Test
+	public void testHandleMissing()
+	{
+		Config config = Config.create()
+			.addStream(stream("medium: { width: 100, height: 100 }"))
+			.build();
+
+		ConfigHandle<Integer> handle = config.handle("medium.depth", Integer.class);
+		assertThat(handle.get(), is(Optional.empty()));
+		assertThat(handle.getOrDefault(10), is(10));
+	}
+
+	@Test
+	public void testScopedHandle()
+	{
+		Config config = Config.create()
+			.addStream(stream("medium: { width: 100, height: 100 }"))
+			.build();
+
+		ConfigHandle<Integer> handle = config.scope("medium").handle("height", Integer.class);
+		assertThat(handle.getPath(), is("medium.height"));
+		assertThat(handle.get(), is(Optional.of(100)));
+	}
+
+	@Test
+	public void testPrimitiveHandles()
+	{
+		Config config = Config.create()
+			.addStream(stream("server: { port: 8080, timeout: 1.5, enabled: true, id: 10000000000 }"))
+			.build();
+
+		assertThat(config.intHandle("server.port").getOrDefault(80), is(8080));
+		assertThat(config.longHandle("server.id").get(), is(OptionalLong.of(10000000000l)));
+		assertThat(config.doubleHandle("server.timeout").getOrDefault(1.0), is(1.5));
+		assertThat(config.booleanHandle("server.enabled").get(), is(Optional.of(true)));
+
+		assertThat(config.intHandle("server.missing").get(), is(OptionalInt.empty()));
+		assertThat(config.booleanHandle("server.missing").getOrDefault(true), is(true));
+	}
+
+	@Test
+	public void testReadsDoNotAllocate()
+		throws Exception
+	{
+		Config config = Config.create()
+			.addStream(stream("medium: { width: 100, height: 100 }"))
+			.build();
+
+		ConfigHandle<Integer> handle = config.handle("medium.width", Integer.class);
+		ConfigHandle.OfInt intHandle = config.intHandle("medium.height");
+
+		AllocationCounter counter = new AllocationCounter();
+
+		// Warm up so that the loop is compiled before measuring
+		long sum = read(handle, intHandle, 100_000);
+
+		long before = counter.allocatedBytes();
+		sum += read(handle, intHandle, 100_000);
+		long allocated = counter.allocatedBytes() - before;
+
+		assertThat(sum, is(200_000l * 300));
+		assertThat(allocated, lessThan(4096l));
+	}
+
+	private static long read(ConfigHandle<Integer> handle, ConfigHandle.OfInt intHandle, int times)
+	{
+		long sum = 0;
+		for(int i=0; i<times; i++)
+		{
+			sum += handle.get().get();
+			sum += handle.getOrDefault(0);
+			sum += intHandle.get().getAsInt();
+		}
+		return sum;
+	}
+
+	private InputStream stream(String in)
+	{
+		return new ByteArrayInputStream(in.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Counts the bytes allocated by the current thread, via the HotSpot
+	 * specific extension of the thread MXBean. Accessed reflectively as
+	 * this module does not read java.management.
+	 */
+	private static class AllocationCounter
+	{
+		private final Object bean;
+		private final Method method;
+
+		public AllocationCounter()
+		{
+			Object bean;
+			Method method;
+			try
+			{
+				bean = Class.forName("java.lang.management.ManagementFactory")
+					.getMethod("getThreadMXBean")
+					.invoke(null);
+
+				method = Class.forName("com.sun.management.ThreadMXBean")
+					.getMethod("getThreadAllocatedBytes", long.class);
+			}
+			catch(ReflectiveOperationException e)
+			{
+				bean = null;
+				method = null;
+			}
+
+			Assumptions.assumeTrue(method != null && method.getDeclaringClass().isInstance(bean));
+			this.bean = bean;
+			this.method = method;
+		}
+
+		public long allocatedBytes()
+			throws ReflectiveOperationException
+		{
+			return (Long) method.invoke(bean, Thread.currentThread().getId());
+		}
+	}
+}
@@ -1,14 +1,26 @@
 package se.l4.exoconf;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.validation.Valid;
 import javax.validation.Validation;
@@ -16,6 +28,7 @@ import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import se.l4.exobytes.AnnotationSerialization;
 import se.l4.exobytes.Expose;
@@ -74,6 +87,49 @@ public class DefaultConfigTest
 		assertThat(actual.height, is(100));
 	}
 
+	@Test
+	public void testSizeObjectFlattened()
+	{
+		Config config = Config.create()
+			.withFlattenedSources()
+			.addStream(stream("medium: { width: 100 }"))
+			.addProperty("medium.width", 300)
+			.addProperty("medium.height", 200)
+			.build();
+
+		Size actual = config.get("medium", Size.class).get();
+		assertThat(actual.width, is(100));
+		assertThat(actual.height, is(200));
+	}
+
+	@Test
+	public void testObjectCache()
+	{
+		Config config = Config.create()
+			.withObjectCache(10)
+			.addStream(stream("medium: { width: 100, height: 100 }"))
+			.build();
+
+		Size first = config.get("medium", Size.class).get();
+		Size second = config.get("medium", Size.class).get();
+		assertThat(second, sameInstance(first));
+
+		Root root = config.get(Root.class).get();
+		assertThat(root.medium, not(sameInstance(first)));
+	}
+
+	@Test
+	public void testWithoutObjectCache()
+	{
+		Config config = Config.create()
+			.addStream(stream("medium: { width: 100, height: 100 }"))
+			.build();
+
+		Size first = config.get("medium", Size.class).get();
+		Size second = config.get("medium", Size.class).get();
+		assertThat(second, not(sameInstance(first)));
+	}
+
 	@Test
 	public void testThumbnailsObject()
 	{
@@ -159,6 +215,98 @@ public class DefaultConfigTest
 		assertThat(value, is(100));
 	}
 
+	@Test
+	public void testPrimitiveGetters()
+	{
+		Config config = Config.create()
+			.addStream(stream("server: { port: 8080, timeout: 1.5, enabled: true, id: 10000000000 }"))
+			.addProperty("server.threads", "16")
+			.build();
+
+		assertThat(config.getInt("server.port"), is(OptionalInt.of(8080)));
+		assertThat(config.getInt("server.threads", 1), is(16));
+		assertThat(config.getLong("server.id"), is(OptionalLong.of(10000000000l)));
+		assertThat(config.getDouble("server.timeout", 0.0), is(1.5));
+		assertThat(config.getBoolean("server.enabled"), is(Optional.of(true)));
+
+		assertThat(config.getInt("server.missing"), is(OptionalInt.empty()));
+		assertThat(config.getLong("server.missing", 2l), is(2l));
+		assertThat(config.getDouble("server.missing"), is(OptionalDouble.empty()));
+		assertThat(config.getBoolean("server.missing", false), is(false));
+
+		assertThat(config.scope("server").getInt("port", 80), is(8080));
+	}
+
+	@Test
+	public void testArrayGetters()
+	{
+		Config config = Config.create()
+			.addStream(stream("buckets: [ 10, 20, 30 ], weights: [ 0.5, 1, 1.5 ], names: [ a, b ]"))
+			.build();
+
+		assertThat(config.getIntArray("buckets").get(), is(new int[] { 10, 20, 30 }));
+		assertThat(config.getLongArray("buckets").get(), is(new long[] { 10, 20, 30 }));
+		assertThat(config.getDoubleArray("buckets").get(), is(new double[] { 10, 20, 30 }));
+		assertThat(config.getDoubleArray("weights").get(), is(new double[] { 0.5, 1, 1.5 }));
+		assertThat(config.getIntArray("missing"), is(Optional.empty()));
+		assertThat(config.scope("buckets").getIntArray("missing"), is(Optional.empty()));
+
+		assertThrows(ConfigException.class, () -> {
+			config.getIntArray("names");
+		});
+	}
+
+	@Test
+	public void testArrayGettersWithOverrides()
+	{
+		Config config = Config.create()
+			.addStream(stream("buckets: [ 10, 20, 30 ]"))
+			.addStream(stream("buckets.1: 25"))
+			.addProperty("buckets.3", "40")
+			.build();
+
+		assertThat(config.getIntArray("buckets").get(), is(new int[] { 10, 25, 30, 40 }));
+	}
+
+	@Test
+	public void testPrimitiveGettersFromStrings()
+	{
+		Config config = Config.create()
+			.addProperty("server.port", "8080")
+			.addProperty("server.id", "10000000000")
+			.addProperty("server.timeout", "1.5")
+			.build();
+
+		for(int i=0; i<2; i++)
+		{
+			assertThat(config.getInt("server.port", 0), is(8080));
+			assertThat(config.getLong("server.port", 0), is(8080l));
+			assertThat(config.getDouble("server.port", 0), is(8080.0));
+			assertThat(config.getLong("server.id", 0), is(10000000000l));
+			assertThat(config.getDouble("server.timeout", 0), is(1.5));
+		}
+
+		assertThrows(ConfigException.class, () -> {
+			config.getInt("server.id");
+		});
+
+		assertThrows(ConfigException.class, () -> {
+			config.getLong("server.timeout");
+		});
+	}
+
+	@Test
+	public void testPrimitiveGetterInvalid()
+	{
+		Config config = Config.create()
+			.addProperty("server.port", "abc")
+			.build();
+
+		assertThrows(ConfigException.class, () -> {
+			config.getInt("server.port");
+		});
+	}
+
 	@Test
 	public void testScope()
 	{
@@ -211,6 +359,154 @@ public class DefaultConfigTest
 		assertThat(actual.medium.height, is(100));
 	}
 
+	@Test
+	public void testByteBufferValues(@TempDir Path dir)
+		throws IOException
+	{
+		Files.write(dir.resolve("ca.pem"), "certificate".getBytes(StandardCharsets.UTF_8));
+
+		Config config = Config.create()
+			.withRoot(dir)
+			.addStream(stream("tls: { certificate: \"@file:ca.pem\", key: \"aGVsbG8=\" }"))
+			.build();
+
+		ByteBuffer certificate = config.get("tls.certificate", ByteBuffer.class).get();
+		assertThat(certificate.isReadOnly(), is(true));
+		assertThat(StandardCharsets.UTF_8.decode(certificate).toString(), is("certificate"));
+
+		ByteBuffer key = config.get("tls.key", ByteBuffer.class).get();
+		assertThat(StandardCharsets.UTF_8.decode(key).toString(), is("hello"));
+
+		Tls tls = config.get("tls", Tls.class).get();
+		assertThat(StandardCharsets.UTF_8.decode(tls.certificate).toString(), is("certificate"));
+
+		// Reads return separate views, reading one does not move the other
+		ByteBuffer again = config.get("tls.certificate", ByteBuffer.class).get();
+		assertThat(again, not(sameInstance(certificate)));
+		assertThat(again.remaining(), is(11));
+	}
+
+	@Test
+	public void testByteBufferUnquotedFile()
+	{
+		Config config = Config.create()
+			.addStream(stream("tls { certificate: @file:certs/ca.pem }"))
+			.build();
+
+		assertThrows(ConfigException.class, () -> {
+			config.get("tls.certificate", ByteBuffer.class);
+		});
+	}
+
+	@Test
+	public void testLazyFiles(@TempDir Path dir)
+		throws IOException
+	{
+		Path file = dir.resolve("test.conf");
+		Files.write(file, "medium: { width: 100, height: 100 }\nlarge: { width: 1000 }".getBytes(StandardCharsets.UTF_8));
+
+		Config config = Config.create()
+			.withLazyFiles()
+			.addFile(file)
+			.build();
+
+		Size medium = config.get("medium", Size.class).get();
+		assertThat(medium.width, is(100));
+		assertThat(medium.height, is(100));
+		assertThat(config.getInt("large.width", 0), is(1000));
+
+		Root root = config.get(Root.class).get();
+		assertThat(root.medium.width, is(100));
+	}
+
+	@Test
+	public void testParallelParsing(@TempDir Path dir)
+		throws IOException
+	{
+		Path file = dir.resolve("test.conf");
+		Files.write(file, "medium: { width: 100, height: 100 }\nlarge: { width: 1000 }\nmedium.width: 200".getBytes(StandardCharsets.UTF_8));
+
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try
+		{
+			Config config = Config.create()
+				.withParallelParsing(pool)
+				.addFile(file)
+				.build();
+
+			Size medium = config.get("medium", Size.class).get();
+			assertThat(medium.width, is(200));
+			assertThat(medium.height, is(100));
+			assertThat(config.getInt("large.width", 0), is(1000));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testLoadWithExecutorKeepsOrder()
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			Config config = Config.create()
+				.withExecutor(executor)
+				.addStream(slowStream("medium: { width: 100, height: 100 }"))
+				.addStream(stream("medium: { width: 200 }"))
+				.addStream(stream("medium.height: 300"))
+				.build();
+
+			assertThat(config.getInt("medium.width", 0), is(200));
+			assertThat(config.getInt("medium.height", 0), is(300));
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testLoadWithExecutorFailure()
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			Config.Builder builder = Config.create()
+				.withExecutor(executor)
+				.addStream(stream("medium: { width: 100, height: 100 }"))
+				.addFile("/non-existent/exoconf.conf");
+
+			assertThrows(ConfigException.class, builder::build);
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	private InputStream slowStream(String in)
+	{
+		return new ByteArrayInputStream(in.getBytes(StandardCharsets.UTF_8))
+		{
+			@Override
+			public synchronized int read(byte[] b, int off, int len)
+			{
+				try
+				{
+					Thread.sleep(50);
+				}
+				catch(InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+
+				return super.read(b, off, len);
+			}
+		};
+	}
+
 	private InputStream stream(String in)
 	{
 		return new ByteArrayInputStream(in.getBytes(StandardCharsets.UTF_8));
@@ -237,6 +533,13 @@ public class DefaultConfigTest
 		public int height;
 	}
 
+	@AnnotationSerialization
+	public static class Tls
+	{
+		@Expose
+		public ByteBuffer certificate;
+	}
+
 	@AnnotationSerialization
 	public static class Root
 	{
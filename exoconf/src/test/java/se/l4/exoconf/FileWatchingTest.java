@@ -0,0 +1,178 @@
+package se.l4.exoconf;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileWatchingTest
+{
+	@Test
+	public void testReloadOnChange(@TempDir Path dir)
+		throws Exception
+	{
+		Path file = dir.resolve("test.conf");
+		write(file, "medium: { width: 100, height: 100 }");
+
+		Config config = Config.create()
+			.withFileWatching(Duration.ofMillis(20))
+			.addFile(file)
+			.build();
+
+		ConfigHandle.OfInt width = config.intHandle("medium.width");
+		assertThat(config.getInt("medium.width", 0), is(100));
+		assertThat(width.getOrDefault(0), is(100));
+
+		write(file, "medium: { width: 200, height: 100 }");
+
+		await(() -> config.getInt("medium.width", 0) == 200);
+		await(() -> width.getOrDefault(0) == 200);
+		assertThat(config.getInt("medium.height", 0), is(100));
+	}
+
+	@Test
+	public void testInvalidFileKeepsValues(@TempDir Path dir)
+		throws Exception
+	{
+		Path file = dir.resolve("test.conf");
+		write(file, "medium: { width: 100, height: 100 }");
+
+		Config config = Config.create()
+			.withFileWatching(Duration.ofMillis(20))
+			.addFile(file)
+			.build();
+
+		ConfigHandle<Integer> width = config.handle("medium.width", Integer.class);
+
+		write(file, "medium: { width: 100");
+		Thread.sleep(200);
+
+		assertThat(config.getInt("medium.width", 0), is(100));
+		assertThat(width.get(), is(Optional.of(100)));
+
+		write(file, "medium: { width: 300 }");
+		await(() -> width.getOrDefault(0) == 300);
+	}
+
+	@Test
+	public void testSubscriptionsOnlyNotifiedForChangedPaths(@TempDir Path dir)
+		throws Exception
+	{
+		Path file = dir.resolve("test.conf");
+		write(file, "medium: { width: 100, height: 100 }, small: { width: 10, height: 10 }");
+
+		Config config = Config.create()
+			.withFileWatching(Duration.ofMillis(20))
+			.addFile(file)
+			.build();
+
+		List<Optional<Integer>> medium = new CopyOnWriteArrayList<>();
+		List<Optional<Integer>> small = new CopyOnWriteArrayList<>();
+		List<Optional<Integer>> removed = new CopyOnWriteArrayList<>();
+
+		config.subscribe("medium.width", Integer.class, medium::add);
+		config.scope("small").subscribe("width", Integer.class, small::add);
+		config.subscribe("small.height", Integer.class, removed::add)
+			.unsubscribe();
+
+		write(file, "medium: { width: 200, height: 100 }, small: { width: 10, height: 20 }");
+
+		await(() -> medium.size() == 1);
+		assertThat(medium.get(0), is(Optional.of(200)));
+
+		write(file, "medium: { height: 100 }, small: { width: 20, height: 20 }");
+
+		await(() -> small.size() == 1);
+		assertThat(small.get(0), is(Optional.of(20)));
+		await(() -> medium.size() == 2);
+		assertThat(medium.get(1), is(Optional.empty()));
+
+		assertThat(removed.size(), is(0));
+	}
+
+	@Test
+	public void testReloadWhenSizeAndTimeUnchanged(@TempDir Path dir)
+		throws Exception
+	{
+		Path file = dir.resolve("test.conf");
+		write(file, "timeout: 10");
+
+		Config config = Config.create()
+			.withFileWatching(Duration.ofMillis(20))
+			.addFile(file)
+			.build();
+
+		assertThat(config.getInt("timeout", 0), is(10));
+
+		FileTime modified = Files.getLastModifiedTime(file);
+		Files.write(file, "timeout: 20".getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(file, modified);
+
+		await(() -> config.getInt("timeout", 0) == 20);
+	}
+
+	@Test
+	public void testCloseStopsWatching(@TempDir Path dir)
+		throws Exception
+	{
+		Path file = dir.resolve("test.conf");
+		write(file, "medium: { width: 100 }");
+
+		Config config = Config.create()
+			.withFileWatching(Duration.ofMillis(20))
+			.addFile(file)
+			.build();
+
+		config.close();
+
+		write(file, "medium: { width: 200 }");
+		Thread.sleep(200);
+
+		assertThat(config.getInt("medium.width", 0), is(100));
+	}
+
+	private void write(Path file, String data)
+		throws IOException
+	{
+		FileTime previous = Files.exists(file) ? Files.getLastModifiedTime(file) : null;
+
+		// Replace the file atomically so that a partial write is never read
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.write(temp, data.getBytes(StandardCharsets.UTF_8));
+		Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+		if(previous != null)
+		{
+			// Make sure the change is visible on file systems with coarse timestamps
+			Files.setLastModifiedTime(file, FileTime.fromMillis(previous.toMillis() + 2000));
+		}
+	}
+
+	private void await(BooleanSupplier condition)
+		throws InterruptedException
+	{
+		long end = System.currentTimeMillis() + 5000;
+		while(! condition.getAsBoolean())
+		{
+			if(System.currentTimeMillis() > end)
+			{
+				throw new AssertionError("Condition not met within timeout");
+			}
+
+			Thread.sleep(10);
+		}
+	}
+}
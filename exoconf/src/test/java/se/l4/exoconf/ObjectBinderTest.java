@@ -0,0 +1,211 @@
+package se.l4.exoconf;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import se.l4.exobytes.AnnotationSerialization;
+import se.l4.exobytes.Expose;
+import se.l4.exobytes.Serializer;
+import se.l4.exobytes.Serializers;
+import se.l4.exobytes.streaming.StreamingInput;
+import se.l4.exobytes.streaming.StreamingOutput;
+import se.l4.exobytes.streaming.Token;
+import se.l4.exoconf.internal.ObjectBinder;
+import se.l4.exoconf.internal.streaming.MapInput;
+import se.l4.exoconf.internal.streaming.ValueCache;
+import se.l4.exoconf.sources.ConfigSource;
+import se.l4.exoconf.sources.FileConfigSource;
+
+/**
+ * Tests for {@link ObjectBinder}, results are compared with reading the
+ * same data via {@link MapInput}. Lives in an exported package so that
+ * exobytes can access the test types.
+ */
+public class ObjectBinderTest
+{
+	@Test
+	public void testMatchesStreaming()
+		throws IOException
+	{
+		Serializers serializers = Serializers.create().build();
+		ConfigSource source = FileConfigSource.readString(
+			"server: { host: localhost, port: 8080, timeout: 1.5, enabled: true, id: 10000000000, weight: 2 }\n"
+			+ "server.tags: [ a, b, 3 ]\n"
+			+ "server.ports: [ 80, 443 ]\n"
+			+ "server.nested: { host: inner, port: \"9000\" }\n"
+			+ "server.children: [ { host: c1 }, { host: c2, port: 2 } ]\n"
+		);
+
+		Server direct = bind(serializers, source, "server", Server.class);
+		Server streamed = stream(serializers, source, "server", Server.class);
+
+		assertThat(direct.toString(), is(streamed.toString()));
+		assertThat(direct.host, is("localhost"));
+		assertThat(direct.port, is(8080));
+		assertThat(direct.weight, is((short) 2));
+		assertThat(direct.tags, is(Arrays.asList("a", "b", "3")));
+		assertThat(direct.ports, is(Arrays.asList(80, 443)));
+		assertThat(direct.ports, instanceOf(ArrayList.class));
+		assertThat(direct.nested.port, is(9000));
+		assertThat(direct.children.get(1).host, is("c2"));
+		assertThat(direct.missing, nullValue());
+	}
+
+	@Test
+	public void testMissing()
+		throws IOException
+	{
+		Serializers serializers = Serializers.create().build();
+		ConfigSource source = FileConfigSource.readString("other: 1");
+
+		assertThat(bind(serializers, source, "server", Server.class), nullValue());
+	}
+
+	@Test
+	public void testCustomSerializerUsed()
+		throws IOException
+	{
+		Serializers serializers = Serializers.create().build();
+		serializers.register(Location.class, new LocationSerializer());
+
+		ConfigSource source = FileConfigSource.readString(
+			"item: { location: \"/var/data\", name: test }"
+		);
+
+		Item item = bind(serializers, source, "item", Item.class);
+		assertThat(item.location.path, is("/var/data"));
+		assertThat(item.name, is("test"));
+
+		ObjectBinder binder = new ObjectBinder(serializers);
+		assertThat(binder.find(Location.class), nullValue());
+		assertThat(binder.find(Item.class), notNullValue());
+	}
+
+	@Test
+	public void testInvalidShapeFails()
+		throws IOException
+	{
+		Serializers serializers = Serializers.create().build();
+		ConfigSource source = FileConfigSource.readString(
+			"server: { host: { value: 1 } }\nlist: [ 1, 2 ]\nvalue: 10"
+		);
+
+		assertThrows(Exception.class, () -> bind(serializers, source, "server", Server.class));
+		assertThrows(Exception.class, () -> bind(serializers, source, "list", Server.class));
+		assertThrows(Exception.class, () -> bind(serializers, source, "value", Server.class));
+	}
+
+	private <T> T bind(Serializers serializers, ConfigSource source, String path, Class<T> type)
+		throws IOException
+	{
+		ObjectBinder.Plan<T> plan = new ObjectBinder(serializers).find(type);
+		assertThat(plan, notNullValue());
+		return plan.read(source, path, new ValueCache(16));
+	}
+
+	private <T> T stream(Serializers serializers, ConfigSource source, String path, Class<T> type)
+		throws IOException
+	{
+		return serializers.get(type).read(MapInput.resolveInput(source, path, new ValueCache(16)));
+	}
+
+	@AnnotationSerialization
+	public static class Server
+	{
+		@Expose
+		public String host;
+		@Expose
+		public int port;
+		@Expose
+		public double timeout;
+		@Expose
+		public boolean enabled;
+		@Expose
+		public Long id;
+		@Expose
+		public short weight;
+		@Expose
+		public List<String> tags;
+		@Expose
+		public List<Integer> ports;
+		@Expose
+		public Endpoint nested;
+		@Expose
+		public List<Endpoint> children;
+		@Expose
+		public String missing;
+
+		@Override
+		public String toString()
+		{
+			return "Server{host=" + host + ", port=" + port + ", timeout=" + timeout
+				+ ", enabled=" + enabled + ", id=" + id + ", weight=" + weight
+				+ ", tags=" + tags + ", ports=" + ports + ", nested=" + nested
+				+ ", children=" + children + ", missing=" + missing + "}";
+		}
+	}
+
+	@AnnotationSerialization
+	public static class Endpoint
+	{
+		@Expose
+		public String host;
+		@Expose
+		public int port;
+
+		@Override
+		public String toString()
+		{
+			return "Endpoint{host=" + host + ", port=" + port + "}";
+		}
+	}
+
+	@AnnotationSerialization
+	public static class Item
+	{
+		@Expose
+		public Location location;
+		@Expose
+		public String name;
+	}
+
+	public static class Location
+	{
+		private final String path;
+
+		public Location(String path)
+		{
+			this.path = path;
+		}
+	}
+
+	private static class LocationSerializer
+		implements Serializer<Location>
+	{
+		@Override
+		public Location read(StreamingInput in)
+			throws IOException
+		{
+			in.next(Token.VALUE);
+			return new Location(in.readString());
+		}
+
+		@Override
+		public void write(Location object, StreamingOutput out)
+			throws IOException
+		{
+			out.writeString(object.path);
+		}
+	}
+}
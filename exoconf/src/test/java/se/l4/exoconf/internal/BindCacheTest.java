@@ -0,0 +1,67 @@
+package se.l4.exoconf.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import se.l4.exobytes.Serializer;
+import se.l4.exobytes.Serializers;
+
+/**
+ * Tests for {@link BindCache}.
+ */
+public class BindCacheTest
+{
+	private final Serializers serializers = Serializers.create().build();
+
+	@Test
+	public void testKeyedOnPathAndSerializer()
+	{
+		Serializer<String> strings = serializers.get(String.class);
+		Serializer<Integer> ints = serializers.get(Integer.class);
+
+		BindCache cache = new BindCache(10);
+		cache.put("port", strings, Optional.of("8080"));
+
+		assertThat(cache.get("port", strings), is(Optional.of("8080")));
+		assertThat(cache.get("port", ints), nullValue());
+		assertThat(cache.get("host", strings), nullValue());
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsed()
+	{
+		Serializer<String> strings = serializers.get(String.class);
+
+		BindCache cache = new BindCache(10);
+		for(int i = 0; i < 10; i++)
+		{
+			cache.put("key" + i, strings, Optional.of("value" + i));
+		}
+
+		// Use the first key so that it is more recent than the others
+		assertThat(cache.get("key0", strings), notNullValue());
+
+		cache.put("key10", strings, Optional.of("value10"));
+
+		assertThat(cache.get("key0", strings), notNullValue());
+		assertThat(cache.get("key1", strings), nullValue());
+		assertThat(cache.get("key10", strings), notNullValue());
+
+		int cached = 0;
+		for(int i = 0; i <= 10; i++)
+		{
+			if(cache.get("key" + i, strings) != null)
+			{
+				cached++;
+			}
+		}
+
+		assertThat(cached, is(9));
+	}
+}
@@ -0,0 +1,20 @@
+package se.l4.exoconf.internal;
+
+import java.nio.charset.StandardCharsets;
+
+import se.l4.exobytes.streaming.StreamingInput;
+import se.l4.exoconf.internal.streaming.ConfigJsonBytesInput;
+
+/**
+ * Test for {@link ConfigJsonBytesInput}, runs the same tests as for
+ * {@link se.l4.exoconf.internal.streaming.ConfigJsonInput}.
+ */
+public class ConfigJsonBytesInputTest
+	extends ConfigJsonInputTest
+{
+	@Override
+	protected StreamingInput createInput(String in)
+	{
+		return new ConfigJsonBytesInput(in.getBytes(StandardCharsets.UTF_8));
+	}
+}
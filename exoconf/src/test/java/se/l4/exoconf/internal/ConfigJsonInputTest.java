@@ -4,7 +4,9 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.io.InputStream;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.jupiter.api.Test;
 
@@ -327,6 +329,22 @@ public class ConfigJsonInputTest
 	 *
 	 * @throws Exception
 	 */
+	@Test
+	public void testByteStream()
+		throws Exception
+	{
+		StreamingInput in = createInput("key: \"aGVsbG8gd29ybGQ=\"");
+
+		assertThat(in.next(), is(Token.VALUE));
+		assertThat(in.readString(), is("key"));
+
+		assertThat(in.next(), is(Token.VALUE));
+		try(InputStream stream = in.readByteStream())
+		{
+			assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8), is("hello world"));
+		}
+	}
+
 	@Test
 	public void testKeyThenObjectWithNewline()
 		throws Exception
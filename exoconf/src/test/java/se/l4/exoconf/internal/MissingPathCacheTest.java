@@ -0,0 +1,181 @@
+package se.l4.exoconf.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.collections.api.RichIterable;
+import org.eclipse.collections.api.factory.Maps;
+import org.eclipse.collections.api.map.MapIterable;
+import org.eclipse.collections.api.map.MutableMap;
+import org.junit.jupiter.api.Test;
+
+import se.l4.exobytes.Serializers;
+import se.l4.exoconf.Config;
+import se.l4.exoconf.sources.ConfigKeys;
+import se.l4.exoconf.sources.ConfigSource;
+import se.l4.exoconf.sources.MapBasedConfigSource;
+
+/**
+ * Tests that reads of missing paths are remembered until the source of
+ * a {@link DefaultConfig} changes, as long as the sources are static.
+ */
+public class MissingPathCacheTest
+{
+	@Test
+	public void testMissingObjectCached()
+	{
+		CountingSource source = new CountingSource(Maps.mutable.<String, Object>of("server.port", 8080));
+		Config config = create(source);
+
+		assertThat(config.get("server.host", String.class), is(Optional.empty()));
+		int lookups = source.lookups.get();
+
+		assertThat(config.get("server.host", String.class), is(Optional.empty()));
+		assertThat(config.get("server.host", Integer.class), is(Optional.empty()));
+		assertThat(source.lookups.get(), is(lookups));
+	}
+
+	@Test
+	public void testMissingValueCached()
+	{
+		CountingSource source = new CountingSource(Maps.mutable.<String, Object>of("server.port", 8080));
+		Config config = create(source);
+
+		assertThat(config.getInt("server.threads", 4), is(4));
+		int lookups = source.lookups.get();
+
+		assertThat(config.getInt("server.threads", 4), is(4));
+		assertThat(config.get("server.threads", Integer.class), is(Optional.empty()));
+		assertThat(source.lookups.get(), is(lookups));
+
+		// Objects are not missing just because they have no value
+		assertThat(config.getInt("server", 1), is(1));
+		assertThat(config.getInt("server.port", 0), is(8080));
+	}
+
+	@Test
+	public void testNotCachedForUserSources()
+	{
+		ChangingSource source = new ChangingSource();
+		Config config = Config.create()
+			.addSource(source)
+			.build();
+
+		assertThat(config.getInt("server.threads", 4), is(4));
+		assertThat(config.get("server.threads", Integer.class), is(Optional.empty()));
+
+		source.values.put("server.threads", 16);
+
+		assertThat(config.getInt("server.threads", 4), is(16));
+		assertThat(config.get("server.threads", Integer.class), is(Optional.of(16)));
+	}
+
+	@Test
+	public void testCachedForFlattenedUserSources()
+	{
+		ChangingSource source = new ChangingSource();
+		Config config = Config.create()
+			.withFlattenedSources()
+			.addSource(source)
+			.build();
+
+		assertThat(config.getInt("server.threads", 4), is(4));
+		source.values.put("server.threads", 16);
+		assertThat(config.getInt("server.threads", 4), is(4));
+	}
+
+	@Test
+	public void testInvalidatedOnUpdate()
+	{
+		Config config = Config.create()
+			.addSource(new MapBasedConfigSource(Maps.mutable.<String, Object>of("server.port", 8080)))
+			.build();
+
+		assertThat(config.getInt("server.threads", 4), is(4));
+		assertThat(config.get("server.threads", Integer.class), is(Optional.empty()));
+
+		((DefaultConfig) config).update(new MapBasedConfigSource(Maps.mutable.<String, Object>of("server.threads", 16)));
+
+		assertThat(config.getInt("server.threads", 4), is(16));
+		assertThat(config.get("server.threads", Integer.class), is(Optional.of(16)));
+	}
+
+	/**
+	 * Create a config that remembers missing paths, as done when all
+	 * sources are known to be static.
+	 */
+	private static Config create(ConfigSource source)
+	{
+		return new DefaultConfig(Serializers.create().build(), null, source, null, 0, true);
+	}
+
+	/**
+	 * Source that gains values after it has been created.
+	 */
+	private static class ChangingSource
+		implements ConfigSource
+	{
+		private final MutableMap<String, Object> values = Maps.mutable.<String, Object>empty().asSynchronized();
+
+		@Override
+		public MapIterable<String, Object> getProperties()
+		{
+			return values.toImmutable();
+		}
+
+		@Override
+		public RichIterable<String> getKeys(String path)
+		{
+			String prefix = path.isEmpty() ? path : path + ConfigKeys.PATH_DELIMITER;
+			return values.keysView()
+				.select(key -> key.startsWith(prefix))
+				.collect(key -> {
+					int idx = key.indexOf(ConfigKeys.PATH_DELIMITER, prefix.length());
+					return idx < 0 ? key.substring(prefix.length()) : key.substring(prefix.length(), idx);
+				})
+				.toSet();
+		}
+
+		@Override
+		public Object getValue(String path)
+		{
+			return values.get(path);
+		}
+	}
+
+	private static class CountingSource
+		implements ConfigSource
+	{
+		private final ConfigSource source;
+		private final AtomicInteger lookups;
+
+		public CountingSource(MapIterable<String, Object> properties)
+		{
+			source = new MapBasedConfigSource(properties);
+			lookups = new AtomicInteger();
+		}
+
+		@Override
+		public MapIterable<String, Object> getProperties()
+		{
+			return source.getProperties();
+		}
+
+		@Override
+		public RichIterable<String> getKeys(String path)
+		{
+			lookups.incrementAndGet();
+			return source.getKeys(path);
+		}
+
+		@Override
+		public Object getValue(String path)
+		{
+			lookups.incrementAndGet();
+			return source.getValue(path);
+		}
+	}
+}
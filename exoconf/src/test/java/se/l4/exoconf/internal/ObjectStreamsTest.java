@@ -1,11 +1,17 @@
 package se.l4.exoconf.internal;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.OptionalInt;
 
+import org.eclipse.collections.api.factory.Lists;
 import org.eclipse.collections.api.factory.Maps;
 import org.junit.jupiter.api.Test;
 
@@ -13,7 +19,10 @@ import se.l4.exobytes.streaming.StreamingInput;
 import se.l4.exobytes.streaming.Token;
 import se.l4.exoconf.ConfigKey;
 import se.l4.exoconf.internal.streaming.MapInput;
+import se.l4.exoconf.internal.streaming.ValueCache;
+import se.l4.exoconf.sources.ConfigSource;
 import se.l4.exoconf.sources.MapBasedConfigSource;
+import se.l4.exoconf.sources.MergingConfigSource;
 
 /**
  * Tests for {@link MapInput}.
@@ -22,7 +31,7 @@ public class ObjectStreamsTest
 {
 	protected StreamingInput resolve(Map<String, Object> map)
 	{
-		return MapInput.resolveInput(new MapBasedConfigSource(Maps.mutable.ofMap(map)), "");
+		return MapInput.resolveInput(new MapBasedConfigSource(Maps.mutable.ofMap(map)), "", new ValueCache(16));
 	}
 
 	protected Map<String, Object> createMap()
@@ -199,4 +208,116 @@ public class ObjectStreamsTest
 		assertThat(in.next(), is(Token.END_OF_STREAM));
 	}
 
+	@Test
+	public void testListWithGaps()
+		throws Exception
+	{
+		Map<String, Object> data = createMap();
+		data.put("sub.5", "value2");
+		data.put("sub.0", "value1");
+
+		StreamingInput in = MapInput.resolveInput(new MapBasedConfigSource(Maps.mutable.ofMap(data)), "sub", new ValueCache(16));
+
+		assertThat(in.next(), is(Token.LIST_START));
+
+		assertThat(in.next(), is(Token.VALUE));
+		assertThat(in.readString(), is("value1"));
+
+		assertThat(in.next(), is(Token.VALUE));
+		assertThat(in.readString(), is("value2"));
+
+		assertThat(in.next(), is(Token.LIST_END));
+		assertThat(in.next(), is(Token.END_OF_STREAM));
+	}
+
+	@Test
+	public void testLengths()
+		throws Exception
+	{
+		Map<String, Object> data = createMap();
+		data.put("list.0", "value1");
+		data.put("list.1", "value2");
+		data.put("gaps.0", "value1");
+		data.put("gaps.5", "value2");
+		data.put("gaps.7", "value3");
+
+		MapBasedConfigSource source = new MapBasedConfigSource(Maps.mutable.ofMap(data));
+
+		// The name of the object is reported as a key
+		StreamingInput in = MapInput.resolveInput(source, "", new ValueCache(16));
+		assertThat(in.next(), is(Token.OBJECT_START));
+		assertThat(in.getLength(), is(OptionalInt.of(3)));
+		assertThat(in.next(), is(Token.VALUE));
+		assertThat(in.getLength(), is(OptionalInt.empty()));
+
+		in = MapInput.resolveInput(source, "list", new ValueCache(16));
+		assertThat(in.next(), is(Token.LIST_START));
+		assertThat(in.getLength(), is(OptionalInt.of(2)));
+		assertThat(in.next(), is(Token.VALUE));
+		assertThat(in.getLength(), is(OptionalInt.empty()));
+
+		in = MapInput.resolveInput(source, "gaps", new ValueCache(16));
+		assertThat(in.next(), is(Token.LIST_START));
+		assertThat(in.getLength(), is(OptionalInt.of(3)));
+	}
+
+	@Test
+	public void testLengthsOfMergedSources()
+		throws Exception
+	{
+		Map<String, Object> data = createMap();
+		data.put("key1", "value1");
+		data.put("key2", "value2");
+
+		MapBasedConfigSource first = new MapBasedConfigSource(Maps.mutable.ofMap(data));
+		MapBasedConfigSource second = new MapBasedConfigSource(Maps.mutable.ofMap(data));
+
+		// A single source is counted via its index
+		StreamingInput in = MapInput.resolveInput(new MergingConfigSource(Lists.immutable.<ConfigSource>of(first)), "", new ValueCache(16));
+		assertThat(in.next(), is(Token.OBJECT_START));
+		assertThat(in.getLength(), is(OptionalInt.of(3)));
+
+		// Overlapping keys of several sources are not counted
+		in = MapInput.resolveInput(new MergingConfigSource(Lists.immutable.<ConfigSource>of(first, second)), "", new ValueCache(16));
+		assertThat(in.next(), is(Token.OBJECT_START));
+		assertThat(in.getLength(), is(OptionalInt.empty()));
+	}
+
+	@Test
+	public void testBytes()
+		throws Exception
+	{
+		Map<String, Object> data = createMap();
+		data.put("key", "aGVsbG8gd29ybGQ=");
+
+		MapBasedConfigSource source = new MapBasedConfigSource(Maps.mutable.ofMap(data));
+		ValueCache values = new ValueCache(16);
+
+		StreamingInput in = MapInput.resolveInput(source, "key", values);
+		assertThat(in.next(), is(Token.VALUE));
+		try(InputStream stream = in.readByteStream())
+		{
+			assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8), is("hello world"));
+		}
+
+		in = MapInput.resolveInput(source, "key", values);
+		assertThat(in.next(), is(Token.VALUE));
+		byte[] first = in.readByteArray();
+		assertThat(new String(first, StandardCharsets.UTF_8), is("hello world"));
+
+		// Cached values are copied so callers can not modify them
+		first[0] = 'j';
+		in = MapInput.resolveInput(source, "key", values);
+		assertThat(in.next(), is(Token.VALUE));
+		byte[] second = in.readByteArray();
+		assertThat(second, not(sameInstance(first)));
+		assertThat(new String(second, StandardCharsets.UTF_8), is("hello world"));
+
+		in = MapInput.resolveInput(source, "key", values);
+		assertThat(in.next(), is(Token.VALUE));
+		try(InputStream stream = in.readByteStream())
+		{
+			assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8), is("hello world"));
+		}
+	}
 }
@@ -0,0 +1,84 @@
+package se.l4.exoconf.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import se.l4.exoconf.Config;
+import se.l4.exoconf.sources.ConfigSource;
+import se.l4.exoconf.sources.FileConfigSource;
+import se.l4.exoconf.sources.SnapshotConfigSource;
+
+public class SnapshotCacheTest
+{
+	@Test
+	public void testSnapshotUsedWhenUnchanged(@TempDir Path dir)
+		throws IOException
+	{
+		Path file = dir.resolve("test.conf");
+		Files.write(file, "medium: { width: 100 }".getBytes(StandardCharsets.UTF_8));
+
+		SnapshotCache cache = new SnapshotCache(dir.resolve("snapshots"));
+
+		ConfigSource first = cache.read(file);
+		assertThat(first, instanceOf(FileConfigSource.class));
+
+		ConfigSource second = cache.read(file);
+		assertThat(second, instanceOf(SnapshotConfigSource.class));
+		assertThat(second.getValue("medium.width"), is(100l));
+	}
+
+	@Test
+	public void testSnapshotIgnoredWhenChanged(@TempDir Path dir)
+		throws IOException
+	{
+		Path file = dir.resolve("test.conf");
+		Files.write(file, "medium: { width: 100 }".getBytes(StandardCharsets.UTF_8));
+		FileTime modified = Files.getLastModifiedTime(file);
+
+		SnapshotCache cache = new SnapshotCache(dir.resolve("snapshots"));
+		cache.read(file);
+
+		// Same size and modification time, but different content
+		Files.write(file, "medium: { width: 200 }".getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(file, modified);
+
+		ConfigSource source = cache.read(file);
+		assertThat(source, instanceOf(FileConfigSource.class));
+		assertThat(source.getValue("medium.width"), is(200l));
+	}
+
+	@Test
+	public void testConfigWithSnapshots(@TempDir Path dir)
+		throws IOException
+	{
+		Path file = dir.resolve("test.conf");
+		Files.write(file, "medium: { width: 100, height: 200 }".getBytes(StandardCharsets.UTF_8));
+
+		for(int i=0; i<2; i++)
+		{
+			Config config = Config.create()
+				.withSnapshotDirectory(dir.resolve("snapshots"))
+				.addFile(file)
+				.build();
+
+			assertThat(config.getInt("medium.width", 0), is(100));
+			assertThat(config.getInt("medium.height", 0), is(200));
+		}
+
+		try(Stream<Path> snapshots = Files.list(dir.resolve("snapshots")))
+		{
+			assertThat(snapshots.count(), is(1l));
+		}
+	}
+}
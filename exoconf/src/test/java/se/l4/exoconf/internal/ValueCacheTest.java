@@ -0,0 +1,49 @@
+package se.l4.exoconf.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import se.l4.exoconf.internal.streaming.ValueCache;
+
+/**
+ * Tests for {@link ValueCache}.
+ */
+public class ValueCacheTest
+{
+	@Test
+	public void testNumbers()
+	{
+		ValueCache cache = new ValueCache(16);
+		assertThat(cache.toInt("8080"), is(8080));
+		assertThat(cache.toLong("10000000000"), is(10000000000l));
+		assertThat(cache.toDouble("1.5"), is(1.5));
+		assertThat(cache.toDouble("8080"), is(8080.0));
+	}
+
+	@Test
+	public void testDecodedBytesBoundedBySize()
+	{
+		ValueCache cache = new ValueCache(8);
+
+		byte[] hello = cache.decode("aGVsbG8=");
+		assertThat(cache.decode("aGVsbG8="), sameInstance(hello));
+
+		// Both values do not fit, the least recently used is evicted
+		byte[] world = cache.decode("d29ybGQ=");
+		assertThat(cache.decode("d29ybGQ="), sameInstance(world));
+		assertThat(cache.decode("aGVsbG8="), not(sameInstance(hello)));
+	}
+
+	@Test
+	public void testLargeBytesNotCached()
+	{
+		ValueCache cache = new ValueCache(4);
+
+		byte[] hello = cache.decode("aGVsbG8=");
+		assertThat(cache.decode("aGVsbG8="), not(sameInstance(hello)));
+	}
+}
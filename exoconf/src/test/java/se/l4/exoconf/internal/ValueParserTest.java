@@ -0,0 +1,68 @@
+package se.l4.exoconf.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import se.l4.exoconf.internal.streaming.ValueParser;
+
+/**
+ * Test for {@link ValueParser}, checks that values are classified in the
+ * same way as when parsing via {@link Long#parseLong(String)} and
+ * {@link Double#parseDouble(String)}.
+ */
+public class ValueParserTest
+{
+	private static final String[] VALUES = {
+		"", "true", "false", "True", "truex", "f", "t", "null", "value", "value with spaces",
+		"0", "1", "-1", "+1", "-", "+", "--1", "+-1", "007", "1 2",
+		"9223372036854775807", "-9223372036854775808", "9223372036854775808",
+		"-9223372036854775809", "99999999999999999999999",
+		"١٢٣", "-١", "١٢٣٤٥٦٧٨٩١٢٣٤٥٦٧٨٩١",
+		"１２",
+		"1.5", "-1.5", ".5", "5.", ".", "-.", "1.2.3", "1e5", "1E-5", "1e+5", "1e", "1e+", "e5",
+		"1.5f", "1.5F", "1d", "1D", "1.5x", "1ff", "1e5f", "1.5 f",
+		"NaN", "-NaN", "+NaN", "NaNx", "Nan", "Infinity", "-Infinity", "Infinit", "Infinityf", "N", "I",
+		"0x1p1", "0X1P1", "-0x1.8p1", "0x.8p1", "0x1.p1", "0x1", "0x.p1", "0x1p", "0x1p+2d", "0xgp1", "0x",
+		"1_000", "1,5", "10.0.0.1", "192.168.0.1:8080", "2020-01-01", "/path/to/file", "1.5e10d"
+	};
+
+	@Test
+	public void testMatchesParseMethods()
+	{
+		for(String value : VALUES)
+		{
+			assertThat("'" + value + "'", ValueParser.parse(value), is(reference(value)));
+		}
+	}
+
+	private static Object reference(String in)
+	{
+		if(in.equals("false"))
+		{
+			return false;
+		}
+		else if(in.equals("true"))
+		{
+			return true;
+		}
+
+		try
+		{
+			return Long.parseLong(in);
+		}
+		catch(NumberFormatException e)
+		{
+			try
+			{
+				return Double.parseDouble(in);
+			}
+			catch(NumberFormatException e2)
+			{
+			}
+		}
+
+		return in;
+	}
+}
@@ -1,6 +1,7 @@
 package se.l4.exoconf.sources;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 
@@ -32,6 +33,40 @@ public class EnvironmentSourceTest
 		assertThat(source.getValue("test.subkey"), is("v1"));
 	}
 
+	@Test
+	public void testGetMixedCase()
+	{
+		EnvironmentConfigSource source = new EnvironmentConfigSource(Maps.mutable.<String, Object>empty()
+			.withKeyValue("TEST_SUBKEY", "v1")
+		);
+
+		assertThat(source.getValue("Test.SubKey"), is("v1"));
+		assertThat(source.getValue("test-subkey"), is("v1"));
+	}
+
+	@Test
+	public void testGetPrefersExactName()
+	{
+		EnvironmentConfigSource source = new EnvironmentConfigSource(Maps.mutable.<String, Object>empty()
+			.withKeyValue("TEST.SUBKEY", "v1")
+			.withKeyValue("TEST_SUBKEY", "v2")
+		);
+
+		assertThat(source.getValue("test.subkey"), is("v1"));
+		assertThat(source.getValue("test_subkey"), is("v2"));
+	}
+
+	@Test
+	public void testGetMissing()
+	{
+		EnvironmentConfigSource source = new EnvironmentConfigSource(Maps.mutable.<String, Object>empty()
+			.withKeyValue("TEST_SUBKEY", "v1")
+		);
+
+		assertThat(source.getValue("test"), nullValue());
+		assertThat(source.getValue("test.subkey.other"), nullValue());
+	}
+
 	@Test
 	public void testKeys()
 	{
@@ -80,4 +115,16 @@ public class EnvironmentSourceTest
 
 		assertThat(source.getKeys(""), containsInAnyOrder("_"));
 	}
+
+	@Test
+	public void testLargeNumericKeys()
+	{
+		EnvironmentConfigSource source = new EnvironmentConfigSource(Maps.mutable.<String, Object>empty()
+			.withKeyValue("BUILD_20231018123456", "1")
+		);
+
+		assertThat(source.getValue("build.20231018123456"), is("1"));
+		assertThat(source.getKeys("build"), containsInAnyOrder("20231018123456"));
+		assertThat(source.getIndexes("build").isEmpty(), is(true));
+	}
 }
@@ -2,11 +2,22 @@ package se.l4.exoconf.sources;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.emptyIterable;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
+import org.eclipse.collections.impl.factory.primitive.DoubleLists;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class FileSourceTest
 {
@@ -60,4 +71,153 @@ public class FileSourceTest
 		assertThat(source.getKeys(""), containsInAnyOrder("list"));
 	}
 
+	@Test
+	public void testNumericLists()
+		throws IOException
+	{
+		FileConfigSource source = FileConfigSource.readString("longs: [ 1, 2, 3 ]\ndoubles: [ 1, 2.5 ]\nstrings: [ 1, two ]");
+		assertThat(source.getLongList("longs"), is(LongLists.immutable.of(1, 2, 3)));
+		assertThat(source.getDoubleList("longs"), nullValue());
+		assertThat(source.getDoubleList("doubles"), is(DoubleLists.immutable.of(1.0, 2.5)));
+		assertThat(source.getLongList("strings"), nullValue());
+		assertThat(source.getDoubleList("strings"), nullValue());
+	}
+
+	@Test
+	public void testNumericListOverridden()
+		throws IOException
+	{
+		FileConfigSource source = FileConfigSource.readString("a: [ 1, 2, 3 ]\na.1: 20\nb: [ 1, 2 ]\nb.5: 6\nc: [ 1, 2 ]\nc: [ 3 ]");
+		assertThat(source.getLongList("a"), is(LongLists.immutable.of(1, 20, 3)));
+		assertThat(source.getLongList("b"), nullValue());
+		assertThat(source.getLongList("c"), is(LongLists.immutable.of(3, 2)));
+	}
+
+	@Test
+	public void testKeysMatchFullSegments()
+		throws IOException
+	{
+		FileConfigSource source = FileConfigSource.readString("medium: { width: 100 }\nmediumLarge: { width: 200 }");
+		assertThat(source.getKeys("medium"), containsInAnyOrder("width"));
+		assertThat(source.getKeys("med"), emptyIterable());
+		assertThat(source.getKeys("medium.width"), emptyIterable());
+		assertThat(source.getKeys(""), containsInAnyOrder("medium", "mediumLarge"));
+	}
+
+	@Test
+	public void testBytesMatchReader()
+		throws IOException
+	{
+		String[] documents = {
+			"medium: { width: 100, height: 100.5 }",
+			"key with spaces : value with spaces \n other=true",
+			"\"quoted key\": \"line\\nbreak \\u00e5\", list: [ 1, two, { three: 3 } ]",
+			"# comment\nnamn: { \u00e5\u00e4\u00f6: r\u00e4ksm\u00f6rg\u00e5s }\nemoji: \"\ud83d\ude00\"",
+			"wide\u3000key: value\u3000\nnull: null, empty: \"\""
+		};
+
+		for(String document : documents)
+		{
+			FileConfigSource fromReader = FileConfigSource.readString(document);
+			FileConfigSource fromBytes = FileConfigSource.read(document.getBytes(StandardCharsets.UTF_8));
+
+			assertThat(document, fromBytes.getProperties(), is(fromReader.getProperties()));
+		}
+	}
+
+	@Test
+	public void testTokensAcrossBuffer()
+		throws IOException
+	{
+		StringBuilder builder = new StringBuilder();
+		for(int i=0; i<500; i++)
+		{
+			builder.append("key").append(i).append(" : value ").append(i).append('\n');
+			builder.append("\"quoted").append(i).append("\": \"escaped \\\" ").append(i).append("\"\n");
+			builder.append("number").append(i).append(": ").append(i * 1000L).append('\n');
+		}
+
+		char[] chars = new char[5000];
+		Arrays.fill(chars, 'x');
+		String longValue = new String(chars);
+		builder.append("long: ").append(longValue).append('\n');
+		builder.append(longValue).append(": \"").append(longValue).append("\"\n");
+
+		String document = builder.toString();
+		FileConfigSource fromReader = FileConfigSource.readString(document);
+		FileConfigSource fromBytes = FileConfigSource.read(document.getBytes(StandardCharsets.UTF_8));
+
+		assertThat(fromReader.getValue("key499"), is("value 499"));
+		assertThat(fromReader.getValue("quoted250"), is("escaped \" 250"));
+		assertThat(fromReader.getValue("number300"), is(300_000l));
+		assertThat(fromReader.getValue("long"), is(longValue));
+		assertThat(fromReader.getValue(longValue), is(longValue));
+		assertThat(fromBytes.getProperties(), is(fromReader.getProperties()));
+	}
+
+	@Test
+	public void testReadLargeFile(@TempDir Path dir)
+		throws IOException
+	{
+		StringBuilder builder = new StringBuilder();
+		for(int i=0; i<50_000; i++)
+		{
+			builder.append("entry").append(i).append(": { name: \"v\u00e4rde ").append(i).append("\" }\n");
+		}
+
+		Path file = dir.resolve("large.conf");
+		Files.write(file, builder.toString().getBytes(StandardCharsets.UTF_8));
+
+		FileConfigSource source = FileConfigSource.read(file);
+		assertThat(source.getValue("entry0.name"), is("v\u00e4rde 0"));
+		assertThat(source.getValue("entry49999.name"), is("v\u00e4rde 49999"));
+		assertThat(source.getKeys("").size(), is(50_000));
+	}
+
+	@Test
+	public void testReadParallel()
+		throws IOException
+	{
+		StringBuilder builder = new StringBuilder();
+		for(int i=0; i<200; i++)
+		{
+			builder.append("entry").append(i).append(": { name: \"value {").append(i).append("}\", sizes: [ 1, 2, 3 ] }\n");
+		}
+		builder.append("entry10.name: override\n");
+		builder.append("entry20: { sizes: [ 4 ] }\n");
+
+		String document = builder.toString();
+		ByteBuffer buffer = ByteBuffer.wrap(document.getBytes(StandardCharsets.UTF_8));
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try
+		{
+			FileConfigSource source = FileConfigSource.readParallel(buffer, pool);
+			assertThat(source.getValue("entry10.name"), is("override"));
+			assertThat(source.getValue("entry20.sizes.0"), is(4l));
+			assertThat(source.getValue("entry199.name"), is("value {199}"));
+			assertThat(source.getProperties(), is(FileConfigSource.readString(document).getProperties()));
+
+			FileConfigSource wrapped = FileConfigSource.readParallel(
+				ByteBuffer.wrap(("{ " + document + " }").getBytes(StandardCharsets.UTF_8)),
+				pool
+			);
+			assertThat(wrapped.getProperties(), is(source.getProperties()));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testLargeNumericKeys()
+		throws IOException
+	{
+		FileConfigSource source = FileConfigSource.readString("ids { 12345678901: x, 2147483647: y, 2147483648: z }");
+		assertThat(source.getValue("ids.12345678901"), is("x"));
+		assertThat(source.getValue("ids.2147483648"), is("z"));
+		assertThat(source.getKeys("ids"), containsInAnyOrder("12345678901", "2147483647", "2147483648"));
+		assertThat(source.getIndexes("ids").toArray(), is(new int[] { Integer.MAX_VALUE }));
+	}
 }
@@ -0,0 +1,69 @@
+package se.l4.exoconf.sources;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.junit.jupiter.api.Test;
+
+public class LazyFileSourceTest
+{
+	private LazyFileConfigSource read(String data)
+		throws IOException
+	{
+		return LazyFileConfigSource.read(ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void testSections()
+		throws IOException
+	{
+		LazyFileConfigSource source = read("medium: { width: 100, height: 100 }\nsmall { width: 10 }\nname: \"test\"");
+		assertThat(source.getKeys(""), containsInAnyOrder("medium", "small", "name"));
+		assertThat(source.getValue("medium.width"), is(100l));
+		assertThat(source.getValue("small.width"), is(10l));
+		assertThat(source.getValue("name"), is("test"));
+		assertThat(source.getKeys("medium"), containsInAnyOrder("width", "height"));
+		assertThat(source.getValue("large.width"), nullValue());
+		assertThat(source.getKeys("large"), emptyIterable());
+	}
+
+	@Test
+	public void testWrapped()
+		throws IOException
+	{
+		LazyFileConfigSource source = read("{ medium: { width: 100 }, small: { width: 10 } }");
+		assertThat(source.getKeys(""), containsInAnyOrder("medium", "small"));
+		assertThat(source.getValue("medium.width"), is(100l));
+		assertThat(source.getValue("small.width"), is(10l));
+	}
+
+	@Test
+	public void testOverriddenInLaterBlocks()
+		throws IOException
+	{
+		LazyFileConfigSource source = read("medium: { width: 100, height: 100 }\nsmall.width: 10\nmedium.width: 200");
+		assertThat(source.getValue("medium.width"), is(200l));
+		assertThat(source.getValue("medium.height"), is(100l));
+		assertThat(source.getKeys("medium"), containsInAnyOrder("width", "height"));
+		assertThat(source.getProperties().size(), is(3));
+	}
+
+	@Test
+	public void testLists()
+		throws IOException
+	{
+		LazyFileConfigSource source = read("list: [ 1, 2, 3 ]\n# Comment\nother: [ a, b ]");
+		assertThat(source.getIndexes("list"), is(IntLists.immutable.of(0, 1, 2)));
+		assertThat(source.getLongList("list"), is(LongLists.immutable.of(1, 2, 3)));
+		assertThat(source.getValue("other.1"), is("b"));
+	}
+}
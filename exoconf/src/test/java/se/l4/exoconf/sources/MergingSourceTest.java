@@ -0,0 +1,145 @@
+package se.l4.exoconf.sources;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.factory.Maps;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.junit.jupiter.api.Test;
+
+public class MergingSourceTest
+{
+	@Test
+	public void testValuePriority()
+		throws IOException
+	{
+		MergingConfigSource source = new MergingConfigSource(Lists.immutable.of(
+			FileConfigSource.readString("medium: { width: 200 }"),
+			FileConfigSource.readString("medium: { width: 100, height: 100 }")
+		));
+
+		assertThat(source.getValue("medium.width"), is(200l));
+		assertThat(source.getValue("medium.height"), is(100l));
+		assertThat(source.getKeys("medium"), containsInAnyOrder("width", "height"));
+	}
+
+	@Test
+	public void testIterateKeys()
+		throws IOException
+	{
+		MergingConfigSource source = new MergingConfigSource(Lists.immutable.of(
+			FileConfigSource.readString("medium: { width: 200 }"),
+			FileConfigSource.readString("medium: { width: 100, height: 100 }"),
+			FileConfigSource.readString("medium: { depth: 10 }")
+		));
+
+		List<String> keys = new ArrayList<>();
+		Iterator<String> it = source.iterateKeys("medium");
+		while(it.hasNext())
+		{
+			keys.add(it.next());
+		}
+
+		assertThat(keys, containsInAnyOrder("width", "height", "depth"));
+		assertThat(source.iterateKeys("small").hasNext(), is(false));
+	}
+
+	@Test
+	public void testIndexes()
+		throws IOException
+	{
+		MergingConfigSource source = new MergingConfigSource(Lists.immutable.of(
+			new MapBasedConfigSource(Maps.immutable.of("list.1.name", "override", "list.5", "added")),
+			FileConfigSource.readString("list: [ { name: a }, { name: b }, { name: c } ]")
+		));
+
+		assertThat(source.getIndexes("list"), is(IntLists.immutable.of(0, 1, 2, 5)));
+		assertThat(source.getIndexes("list.1"), is(IntLists.immutable.empty()));
+		assertThat(source.getValue("list.1.name"), is("override"));
+	}
+
+	@Test
+	public void testIndexesOverridden()
+		throws IOException
+	{
+		MergingConfigSource source = new MergingConfigSource(Lists.immutable.of(
+			new MapBasedConfigSource(Maps.immutable.of("list.2", "override")),
+			FileConfigSource.readString("list: [ a, b, c, d ]")
+		));
+
+		assertThat(source.getIndexes("list"), is(IntLists.immutable.of(0, 1, 2, 3)));
+	}
+
+	@Test
+	public void testFlattenedValuePriority()
+		throws IOException
+	{
+		ConfigSource high = FileConfigSource.readString("medium: { width: 200 }");
+		ConfigSource low = FileConfigSource.readString("medium: { width: 100, height: 100 }");
+		FlattenedConfigSource source = new MergingConfigSource(Lists.immutable.of(high, low))
+			.flatten();
+
+		assertThat(source.getValue("medium.width"), is(200l));
+		assertThat(source.getValue("medium.height"), is(100l));
+		assertThat(source.getValue("medium"), nullValue());
+		assertThat(source.getValue("small"), nullValue());
+
+		assertThat(source.getKeys(""), containsInAnyOrder("medium"));
+		assertThat(source.getKeys("medium"), containsInAnyOrder("width", "height"));
+
+		assertThat(source.getSource("medium.width"), sameInstance(high));
+		assertThat(source.getSource("medium.height"), sameInstance(low));
+		assertThat(source.getSource("medium"), nullValue());
+	}
+
+	@Test
+	public void testFlattenedWithEnvironment()
+		throws IOException
+	{
+		ConfigSource env = new EnvironmentConfigSource(Maps.mutable.<String, Object>empty()
+			.withKeyValue("MEDIUM_WIDTH", "300")
+		);
+		FlattenedConfigSource source = new MergingConfigSource(Lists.immutable.of(
+			env,
+			FileConfigSource.readString("medium: { width: 100, height: 100 }")
+		)).flatten();
+
+		assertThat(source.getValue("medium.width"), is("300"));
+		assertThat(source.getSource("medium.width"), sameInstance(env));
+
+		// Not seen when flattening, resolved via the merged sources
+		assertThat(source.getValue("Medium.Width"), is("300"));
+	}
+
+	@Test
+	public void testFlattenedDiff()
+		throws IOException
+	{
+		FlattenedConfigSource previous = new MergingConfigSource(Lists.immutable.of(
+			FileConfigSource.readString("medium: { width: 100, height: 100 }, small: { width: 10 }")
+		)).flatten();
+
+		FlattenedConfigSource current = new MergingConfigSource(Lists.immutable.of(
+			FileConfigSource.readString("medium: { width: 200, height: 100 }, large: { width: 1000 }")
+		)).flatten();
+
+		assertThat(current.diff(previous), containsInAnyOrder(
+			"medium.width",
+			"small",
+			"small.width",
+			"large",
+			"large.width"
+		));
+		assertThat(current.diff(current), emptyIterable());
+	}
+}
@@ -0,0 +1,95 @@
+package se.l4.exoconf.sources;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SnapshotSourceTest
+{
+	@Test
+	public void testRoundTrip(@TempDir Path dir)
+		throws IOException
+	{
+		FileConfigSource original = FileConfigSource.readString(
+			"medium: { width: 100, height: 100.5, enabled: true, name: \"Medium å\", missing: null }\n"
+			+ "list: [ one, two ]\n"
+			+ "ämne.title: \"😀\""
+		);
+
+		Path file = dir.resolve("test.snapshot");
+		SnapshotConfigSource.write(file, original.getProperties(), 10, 20, 30);
+
+		SnapshotConfigSource source = SnapshotConfigSource.open(file);
+		assertThat(source.getSourceSize(), is(10l));
+		assertThat(source.getSourceModified(), is(20l));
+		assertThat(source.getSourceChecksum(), is(30));
+
+		assertThat(source.getValue("medium.width"), is(100l));
+		assertThat(source.getValue("medium.height"), is(100.5));
+		assertThat(source.getValue("medium.enabled"), is(true));
+		assertThat(source.getValue("medium.name"), is("Medium å"));
+		assertThat(source.getValue("medium.missing"), nullValue());
+		assertThat(source.getValue("medium.depth"), nullValue());
+		assertThat(source.getValue("list.1"), is("two"));
+		assertThat(source.getValue("ämne.title"), is("😀"));
+
+		assertThat(source.getKeys(""), containsInAnyOrder("medium", "list", "ämne"));
+		assertThat(source.getKeys("medium"), containsInAnyOrder("width", "height", "enabled", "name", "missing"));
+		assertThat(source.getKeys("list"), containsInAnyOrder("0", "1"));
+		assertThat(source.getKeys("medium.width"), emptyIterable());
+
+		assertThat(source.getProperties(), is(original.getProperties()));
+	}
+
+	@Test
+	public void testOpenInvalid(@TempDir Path dir)
+		throws IOException
+	{
+		Path file = dir.resolve("test.snapshot");
+		Files.write(file, "medium: { width: 100 }".getBytes(StandardCharsets.UTF_8));
+
+		assertThrows(IOException.class, () -> SnapshotConfigSource.open(file));
+	}
+
+	@Test
+	public void testOpenCorrupt(@TempDir Path dir)
+		throws IOException
+	{
+		Path file = dir.resolve("test.snapshot");
+		FileConfigSource original = FileConfigSource.readString("medium: { width: 100, height: 200 }");
+		SnapshotConfigSource.write(file, original.getProperties(), 10, 20, 30);
+
+		byte[] data = Files.readAllBytes(file);
+		data[data.length - 1] ^= 0x7f;
+		Files.write(file, data);
+
+		assertThrows(IOException.class, () -> SnapshotConfigSource.open(file));
+	}
+
+	@Test
+	public void testWriteLeavesNoTemporaryFiles(@TempDir Path dir)
+		throws IOException
+	{
+		Path file = dir.resolve("test.snapshot");
+		FileConfigSource original = FileConfigSource.readString("medium: { width: 100 }");
+		SnapshotConfigSource.write(file, original.getProperties(), 10, 20, 30);
+		SnapshotConfigSource.write(file, original.getProperties(), 10, 20, 30);
+
+		try(Stream<Path> files = Files.list(dir))
+		{
+			assertThat(files.count(), is(1l));
+		}
+	}
+}